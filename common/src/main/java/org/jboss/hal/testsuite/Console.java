@@ -17,6 +17,7 @@ package org.jboss.hal.testsuite;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -27,7 +28,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.jboss.arquillian.drone.api.annotation.Drone;
 import org.jboss.arquillian.graphene.location.exception.LocationException;
 import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.hal.meta.token.NameTokens;
 import org.jboss.hal.resources.Ids;
+import org.jboss.hal.testsuite.creaper.ReloadCoordinator;
 import org.jboss.hal.testsuite.fragment.AddResourceDialogFragment;
 import org.jboss.hal.testsuite.fragment.ConfirmationDialogFragment;
 import org.jboss.hal.testsuite.fragment.DialogFragment;
@@ -38,17 +41,20 @@ import org.jboss.hal.testsuite.fragment.WizardFragment;
 import org.jboss.hal.testsuite.fragment.finder.FinderFragment;
 import org.jboss.hal.testsuite.fragment.finder.FinderPath;
 import org.jboss.hal.testsuite.fragment.finder.FinderSegment;
-import org.jboss.hal.testsuite.util.Library;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.TestTimings;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static org.jboss.arquillian.graphene.Graphene.createPageFragment;
 import static org.jboss.arquillian.graphene.Graphene.waitGui;
 import static org.jboss.arquillian.graphene.Graphene.waitModel;
 import static org.jboss.hal.resources.CSS.*;
-import static org.jboss.hal.resources.UIConstants.MEDIUM_TIMEOUT;
 import static org.jboss.hal.testsuite.page.Places.finderPlace;
 import static org.junit.Assert.assertEquals;
 
@@ -69,7 +75,29 @@ import static org.junit.Assert.assertEquals;
  */
 public class Console {
 
+    private static final Logger log = LoggerFactory.getLogger(Console.class);
     private static final String DOT = ".";
+    private static final String HASH = "#";
+    private static final String STALE_ATTRIBUTE = "data-ts-stale";
+    private static final boolean SOFT_NAVIGATION = "soft".equals(ConfigUtils.get("suite.navigation", "refresh"));
+    private static final boolean MAXIMIZE = Boolean.parseBoolean(ConfigUtils.get("suite.browser.maximize", "true"));
+    private static final boolean ANIMATIONS = Boolean.parseBoolean(ConfigUtils.get("suite.browser.animations", "true"));
+
+    /**
+     * Turns off CSS transitions / animations, jQuery effects and the transition support of Bootstrap, so that dialogs,
+     * dropdowns and notifications are shown and hidden immediately.
+     */
+    private static final String DISABLE_ANIMATIONS_SCRIPT = "if (!document.getElementById('ts-no-animations')) {"
+            + "  var style = document.createElement('style');"
+            + "  style.id = 'ts-no-animations';"
+            + "  style.textContent = '*, *::before, *::after { transition: none !important;"
+            + " animation: none !important; }';"
+            + "  document.head.appendChild(style);"
+            + "}"
+            + "if (window.$) {"
+            + "  $.fx.off = true;"
+            + "  if ($.support) { $.support.transition = false; }"
+            + "}";
 
     @Drone private WebDriver browser;
     @ArquillianResource private URL baseUrl;
@@ -98,25 +126,118 @@ public class Console {
      **/
     public void navigate(PlaceRequest request, By selector, URL baseUrl) {
         String fragment = tokenFormatter.toPlaceToken(request);
-        String hashFragment = fragment.startsWith("#") ? fragment : "#" + fragment;
-        try {
+        String hashFragment = fragment.startsWith(HASH) ? fragment : HASH + fragment;
+        try (TestTimings.Span ignored = TestTimings.start(TestTimings.Category.NAVIGATION)) {
             URL url = new URL(baseUrl, hashFragment);
             browser.navigate().to(url);
             waitModel().until().element(selector).is().present();
-            browser.manage().window().maximize();
+            if (MAXIMIZE) {
+                browser.manage().window().maximize();
+            }
+            disableAnimations();
         } catch (MalformedURLException e) {
             throw new LocationException("Malformed URL: ", e.getCause());
         }
     }
 
+    /**
+     * Navigates to the place request by changing only the history token of the already bootstrapped console and waits
+     * until the id {@link Ids#ROOT_CONTAINER} has been filled with the new place.
+     *
+     * <p>This mode is opt-in and enabled by setting the property {@code suite.navigation} to {@code soft}. The method
+     * returns {@code false} without doing anything if the mode is disabled, if the server has been reloaded by the
+     * {@link ReloadCoordinator} or if the console is in a dirty state (not bootstrapped, open modal or pending
+     * notification). In this case the caller should fall back to a full
+     * browser refresh and {@link #navigate(PlaceRequest)}.</p>
+     *
+     * @return {@code true} if the navigation succeeded, {@code false} otherwise
+     */
+    public boolean navigateSoft(PlaceRequest request) {
+        if (!SOFT_NAVIGATION || ReloadCoordinator.consumeBrowserRefresh() || !isClean()) {
+            return false;
+        }
+        String token = tokenFormatter.toPlaceToken(request);
+        try (TestTimings.Span ignored = TestTimings.start(TestTimings.Category.NAVIGATION)) {
+            if (token.equals(StringUtils.substringAfter(browser.getCurrentUrl(), HASH))) {
+                // reveal another place first, otherwise the history token wouldn't change at all
+                changeToken(NameTokens.HOMEPAGE);
+            }
+            changeToken(token);
+            return true;
+        } catch (TimeoutException e) {
+            log.debug("Soft navigation to {} timed out, falling back to refresh", token);
+            return false;
+        }
+    }
+
+    /** Returns whether the console is bootstrapped and has no open modal or pending notification. */
+    private boolean isClean() {
+        if (!browser.getCurrentUrl().startsWith(baseUrl.toExternalForm())) {
+            return false;
+        }
+        Object clean = ((JavascriptExecutor) browser).executeScript(
+                "return document.getElementById(arguments[0]) !== null"
+                        + " && document.querySelector('.modal.in') === null"
+                        + " && document.querySelectorAll(arguments[1] + ' > *').length === 0;",
+                Ids.ROOT_CONTAINER, DOT + toastNotificationsListPf);
+        return Boolean.TRUE.equals(clean);
+    }
+
+    /**
+     * Marks the current content of the root container, changes the history token and waits until the root container
+     * contains unmarked (i.e. new) content. Since HAL might attach the same element again, a mutation observer removes
+     * the mark from all elements added to the root container. Marks left over after the wait are removed as well.
+     */
+    private void changeToken(String token) {
+        JavascriptExecutor js = (JavascriptExecutor) browser;
+        js.executeScript("var root = document.getElementById(arguments[0]), stale = arguments[1];"
+                + "for (var i = 0; i < root.children.length; i++) {"
+                + "  root.children[i].setAttribute(stale, 'true');"
+                + "}"
+                + "if (window.tsStaleObserver) { window.tsStaleObserver.disconnect(); }"
+                + "window.tsStaleObserver = new MutationObserver(function(records) {"
+                + "  records.forEach(function(record) {"
+                + "    for (var j = 0; j < record.addedNodes.length; j++) {"
+                + "      if (record.addedNodes[j].removeAttribute) { record.addedNodes[j].removeAttribute(stale); }"
+                + "    }"
+                + "  });"
+                + "});"
+                + "window.tsStaleObserver.observe(root, { childList: true });"
+                + "window.location.hash = arguments[2];", Ids.ROOT_CONTAINER, STALE_ATTRIBUTE, token);
+        try {
+            waitModel().until()
+                    .element(By.cssSelector(HASH + Ids.ROOT_CONTAINER + " > :not([" + STALE_ATTRIBUTE + "])"))
+                    .is().present();
+        } finally {
+            js.executeScript("if (window.tsStaleObserver) {"
+                    + "  window.tsStaleObserver.disconnect();"
+                    + "  delete window.tsStaleObserver;"
+                    + "}"
+                    + "var stale = document.querySelectorAll('[' + arguments[0] + ']');"
+                    + "for (var i = 0; i < stale.length; i++) {"
+                    + "  stale[i].removeAttribute(arguments[0]);"
+                    + "}", STALE_ATTRIBUTE);
+        }
+    }
+
     public void reload() {
-        browser.navigate().refresh();
-        waitModel().until().element(By.id(Ids.ROOT_CONTAINER)).is().present();
+        try (TestTimings.Span ignored = TestTimings.start(TestTimings.Category.NAVIGATION)) {
+            browser.navigate().refresh();
+            waitModel().until().element(By.id(Ids.ROOT_CONTAINER)).is().present();
+        }
+        disableAnimations();
+    }
+
+    /** Disables animations after a full page load if {@code suite.browser.animations} is {@code false}. */
+    private void disableAnimations() {
+        if (!ANIMATIONS) {
+            ((JavascriptExecutor) browser).executeScript(DISABLE_ANIMATIONS_SCRIPT);
+        }
     }
 
     public void verify(PlaceRequest placeRequest) {
         String expected = tokenFormatter.toPlaceToken(placeRequest);
-        String actual = StringUtils.substringAfter(browser.getCurrentUrl(), "#");
+        String actual = StringUtils.substringAfter(browser.getCurrentUrl(), HASH);
         assertEquals(expected, actual);
     }
 
@@ -132,7 +253,9 @@ public class Console {
                 button.click();
             }
         }
-        waitModel().until().element(By.cssSelector(DOT + toastNotificationsListPf + ":empty")).is().present();
+        try (TestTimings.Span ignored = TestTimings.start(TestTimings.Category.WAIT)) {
+            waitModel().until().element(By.cssSelector(DOT + toastNotificationsListPf + ":empty")).is().present();
+        }
     }
 
     /** Verifies that a success notification is visible */
@@ -174,10 +297,13 @@ public class Console {
         return dialog(DialogFragment.class);
     }
 
+    /**
+     * Returns the currently opened dialog as soon as it's ready to be used.
+     *
+     * @see DialogReadiness
+     */
     public <T extends DialogFragment> T dialog(Class<T> dialogClass) {
-        Library.letsSleep(MEDIUM_TIMEOUT);
-        WebElement dialogElement = browser.findElement(By.id(Ids.HAL_MODAL));
-        waitGui().until().element(dialogElement).is().visible();
+        WebElement dialogElement = DialogReadiness.await(browser);
         return createPageFragment(dialogClass, dialogElement);
     }
 
@@ -189,16 +315,30 @@ public class Console {
     /** Navigates to the specified token, selects the finder path, creates and returns the finder fragment */
     public FinderFragment finder(String token, FinderPath path) {
         By selector = By.id(Ids.FINDER);
+        navigate(finderPlace(token, path), selector);
         if (path != null && !path.isEmpty()) {
-            FinderSegment segment = path.last();
-            if (segment.getItemId() != null) {
-                selector = By.id(segment.getItemId());
-            } else if (segment.getColumnId() != null) {
-                selector = By.id(segment.getColumnId());
+            // the finder fragment is rooted at the last item or column of the path
+            FinderSegment last = path.last();
+            if (last.getItemId() != null) {
+                selector = By.id(last.getItemId());
+            } else if (last.getColumnId() != null) {
+                selector = By.id(last.getColumnId());
             }
+            // HAL loads all columns of the path after the navigation, so wait for all of them at once
+            List<String> selectors = new ArrayList<>();
+            for (FinderSegment segment : path) {
+                if (segment.getColumnId() != null) {
+                    selectors.add(Selectors.id(segment.getColumnId()));
+                }
+                if (segment.getItemId() != null) {
+                    selectors.add(Selectors.id(segment.getItemId()));
+                }
+            }
+            DomWait.allPresent(browser, selectors);
         }
-        navigate(finderPlace(token, path), selector);
-        return createPageFragment(FinderFragment.class, browser.findElement(selector));
+        FinderFragment finder = createPageFragment(FinderFragment.class, browser.findElement(selector));
+        finder.initPath(path);
+        return finder;
     }
 
     public FooterFragment footer() {
@@ -20,7 +20,7 @@ import java.util.function.Consumer;
 
 import org.jboss.arquillian.core.api.annotation.Inject;
 import org.jboss.dmr.ModelNode;
-import org.jboss.hal.testsuite.creaper.ManagementClientProvider;
+import org.jboss.hal.testsuite.creaper.ManagementClientPool;
 import org.jboss.hal.testsuite.creaper.ResourceVerifier;
 import org.jboss.hal.testsuite.fragment.AddResourceDialogFragment;
 import org.jboss.hal.testsuite.fragment.FormFragment;
@@ -33,7 +33,6 @@ import static org.jboss.hal.dmr.ModelDescriptionConstants.NAME;
 /** Methods useful to test and verify CRUD operations in application views. */
 public class CrudOperations {
 
-    private static final OnlineManagementClient client = ManagementClientProvider.createOnlineManagementClient();
     @Inject private Console console;
 
 
@@ -59,7 +58,7 @@ public class CrudOperations {
         dialog.add();
 
         console.verifySuccess();
-        verifyChanges.verify(new ResourceVerifier(address, client));
+        verifyChanges.verify(new ResourceVerifier(address, client()));
     }
 
     /** Adds a singleton resource using the main action of an empty state. */
@@ -84,7 +83,7 @@ public class CrudOperations {
         }
 
         console.verifySuccess();
-        verifyChanges.verify(new ResourceVerifier(address, client));
+        verifyChanges.verify(new ResourceVerifier(address, client()));
     }
 
 
@@ -139,7 +138,7 @@ public class CrudOperations {
     public void reset(Address address, FormFragment form, VerifyChanges verifyChanges) throws Exception {
         form.reset();
         console.verifySuccess();
-        verifyChanges.verify(new ResourceVerifier(address, client));
+        verifyChanges.verify(new ResourceVerifier(address, client()));
     }
 
 
@@ -178,9 +177,11 @@ public class CrudOperations {
     /** Updates the specified form and verifies the changes. */
     public void update(Address address, FormFragment form, String attribute, List<String> values) throws Exception {
         update(address, form, f -> f.list(attribute).add(values), verifier -> {
+            verifier.deferred();
             for (String value : values) {
                 verifier.verifyListAttributeContainsValue(attribute, value);
             }
+            verifier.verifyDeferred();
         });
     }
 
@@ -198,7 +199,7 @@ public class CrudOperations {
         form.save();
 
         console.verifySuccess();
-        verifyChanges.verify(new ResourceVerifier(address, client));
+        verifyChanges.verify(new ResourceVerifier(address, client()));
     }
 
 
@@ -241,7 +242,7 @@ public class CrudOperations {
         console.waitNoNotification();
         table.remove(name);
         console.verifySuccess();
-        verifyChanges.verify(new ResourceVerifier(address, client));
+        verifyChanges.verify(new ResourceVerifier(address, client()));
     }
 
     /** Removes a singleton resource and verifies that the resource no longer exists. */
@@ -253,7 +254,12 @@ public class CrudOperations {
     public void deleteSingleton(Address address, FormFragment form, VerifyChanges verifyChanges) throws Exception {
         form.remove();
         console.verifySuccess();
-        verifyChanges.verify(new ResourceVerifier(address, client));
+        verifyChanges.verify(new ResourceVerifier(address, client()));
+    }
+
+
+    private OnlineManagementClient client() {
+        return ManagementClientPool.defaultPool().forCurrentThread();
     }
 
 
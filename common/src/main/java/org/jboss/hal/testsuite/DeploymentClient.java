@@ -0,0 +1,221 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.net.HttpCookie;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jboss.hal.testsuite.arquillian.BrowserSessionPool;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Client to access deployed applications from tests, e.g. to create HTTP sessions or log messages which are then
+ * verified in the console. Most interactions are plain GET requests, so by default the client uses a lightweight HTTP
+ * session with its own cookie jar, which follows redirects and {@code <meta http-equiv="Refresh">} tags like a
+ * browser. Only if a test needs a real browser (e.g. to click on a button), {@link #browser()} borrows a browser from
+ * the {@link BrowserSessionPool} and hands over the cookies, so the HTTP session is kept.
+ *
+ * <p>Use Arquillian dependency injection to inject an instance of this class into your test class:</p>
+ * <pre>
+ * {@code @}Inject private DeploymentClient deploymentClient;
+ * </pre>
+ *
+ * <p>Each test method gets a new client (and hence a new HTTP session). Borrowed browsers are released after each
+ * test. Set {@code deployment.client} to {@code browser} to use a browser for all requests or to {@code http} to never
+ * switch automatically (default is {@code auto}: HTTP until {@link #browser()} is called).</p>
+ */
+public class DeploymentClient implements AutoCloseable {
+
+    private static final Mode MODE = Mode.valueOf(ConfigUtils.get("deployment.client", "auto").toUpperCase());
+    private static final int TIMEOUT = Integer.parseInt(ConfigUtils.get("deployment.client.timeout", "30000"));
+    private static final int MAX_HOPS = 10;
+    private static final String COOKIE = "Cookie";
+    private static final String HANDOVER_PATH = "/hal-testsuite-cookie-handover-404";
+    private static final Pattern META_REFRESH = Pattern.compile(
+            "<meta[^>]+http-equiv=[\"']?refresh[\"']?[^>]+content=[\"']?\\s*\\d+\\s*;\\s*url=([^\"'>\\s]+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final List<DeploymentClient> open = Collections.synchronizedList(new ArrayList<>());
+
+    private final CookieManager cookies;
+    private WebDriver browser;
+    private URL currentUrl;
+
+    public DeploymentClient() {
+        this.cookies = new CookieManager(null, CookiePolicy.ACCEPT_ALL);
+        open.add(this);
+    }
+
+    /** Closes all clients created so far. */
+    public static void closeAll() {
+        List<DeploymentClient> clients;
+        synchronized (open) {
+            clients = new ArrayList<>(open);
+            open.clear();
+        }
+        clients.forEach(DeploymentClient::close);
+    }
+
+    /**
+     * Requests the URL and returns the content of the page after all redirects. Uses the browser if one has been
+     * borrowed before or if {@code deployment.client} is {@code browser}.
+     *
+     * @throws IllegalStateException if the server returns an error
+     */
+    public String get(String url) {
+        if (MODE == Mode.BROWSER || (browser != null && MODE == Mode.AUTO)) {
+            WebDriver driver = browser();
+            driver.get(url);
+            return driver.getPageSource();
+        }
+        try {
+            return http(new URL(url));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns a browser which shares the cookies (and hence the HTTP session) of this client. The browser is borrowed
+     * from the {@link BrowserSessionPool} on first use and released when the client is closed.
+     */
+    public WebDriver browser() {
+        if (browser == null) {
+            browser = BrowserSessionPool.borrow();
+            if (currentUrl != null) {
+                handOverCookies();
+            }
+        }
+        return browser;
+    }
+
+    /** Returns the URL of the last page after all redirects or {@code null} if nothing has been requested yet. */
+    public String getCurrentUrl() {
+        if (browser != null) {
+            return browser.getCurrentUrl();
+        }
+        return currentUrl != null ? currentUrl.toExternalForm() : null;
+    }
+
+    @Override
+    public void close() {
+        if (browser != null) {
+            BrowserSessionPool.release(browser);
+            browser = null;
+        }
+        cookies.getCookieStore().removeAll();
+        currentUrl = null;
+        open.remove(this);
+    }
+
+    private String http(URL url) throws IOException {
+        URL current = url;
+        for (int hop = 0; hop < MAX_HOPS; hop++) {
+            URI uri = toUri(current);
+            HttpURLConnection connection = (HttpURLConnection) current.openConnection();
+            connection.setInstanceFollowRedirects(false);
+            connection.setConnectTimeout(TIMEOUT);
+            connection.setReadTimeout(TIMEOUT);
+            List<String> requestCookies = cookies.get(uri, Collections.emptyMap()).get(COOKIE);
+            if (requestCookies != null && !requestCookies.isEmpty()) {
+                connection.setRequestProperty(COOKIE, String.join("; ", requestCookies));
+            }
+
+            int status = connection.getResponseCode();
+            cookies.put(uri, connection.getHeaderFields());
+            String body = read(connection, status);
+            String location = null;
+            if (status >= HttpURLConnection.HTTP_MULT_CHOICE && status < HttpURLConnection.HTTP_BAD_REQUEST) {
+                location = connection.getHeaderField("Location");
+            } else if (status < HttpURLConnection.HTTP_MULT_CHOICE) {
+                Matcher matcher = META_REFRESH.matcher(body);
+                location = matcher.find() ? matcher.group(1) : null;
+            }
+            if (location == null) {
+                if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                    throw new IllegalStateException("GET " + current + " failed with status " + status);
+                }
+                currentUrl = current;
+                return body;
+            }
+            current = new URL(current, location);
+        }
+        throw new IllegalStateException("Too many redirects for " + url);
+    }
+
+    /**
+     * Adds the cookies of this client to the browser and loads the current page once. Selenium only adds cookies for
+     * the domain of the current page, so the browser first opens a path which doesn't exist on the same host. Unlike
+     * the page itself, this neither creates a new HTTP session nor accesses the existing one.
+     */
+    private void handOverCookies() {
+        try {
+            browser.get(new URL(currentUrl, HANDOVER_PATH).toExternalForm());
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Invalid URL " + currentUrl, e);
+        }
+        for (HttpCookie cookie : cookies.getCookieStore().get(toUri(currentUrl))) {
+            browser.manage().addCookie(new Cookie(cookie.getName(), cookie.getValue(),
+                    cookie.getPath() != null ? cookie.getPath() : "/"));
+        }
+        browser.get(currentUrl.toExternalForm());
+    }
+
+    private static String read(HttpURLConnection connection, int status) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = status >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream()
+                : connection.getInputStream()) {
+            if (in != null) {
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static URI toUri(URL url) {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid URL " + url, e);
+        }
+    }
+
+
+    private enum Mode {
+        AUTO, HTTP, BROWSER
+    }
+}
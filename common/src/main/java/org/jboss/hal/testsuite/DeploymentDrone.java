@@ -1,14 +0,0 @@
-package org.jboss.hal.testsuite;
-
-import java.lang.annotation.ElementType;
-import java.lang.annotation.Retention;
-import java.lang.annotation.RetentionPolicy;
-import java.lang.annotation.Target;
-
-import org.jboss.arquillian.drone.api.annotation.Qualifier;
-
-@Qualifier
-@Retention(RetentionPolicy.RUNTIME)
-@Target({ ElementType.FIELD, ElementType.PARAMETER})
-public @interface DeploymentDrone {
-}
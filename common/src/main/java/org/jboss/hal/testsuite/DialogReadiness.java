@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.jboss.hal.resources.Ids;
+import org.jboss.hal.testsuite.util.TestTimings;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.jboss.arquillian.graphene.Graphene.waitGui;
+import static org.jboss.hal.resources.UIConstants.MEDIUM_TIMEOUT;
+
+/**
+ * Detects when the modal dialog is ready to be used. A dialog is ready when
+ * <ol>
+ * <li>the Bootstrap modal is in the shown state (class {@code in}, displayed),</li>
+ * <li>the fade-in transitions of the modal and the dialog have ended and</li>
+ * <li>the focus has moved into the modal (Bootstrap does this after the {@code shown.bs.modal} event).</li>
+ * </ol>
+ *
+ * <p>All waits are recorded, so that the time saved compared to the former fixed sleep of {@link
+ * org.jboss.hal.resources.UIConstants#MEDIUM_TIMEOUT} can be reported at the end of the run.</p>
+ */
+public final class DialogReadiness {
+
+    private static final Logger log = LoggerFactory.getLogger(DialogReadiness.class);
+    private static final String READY_SCRIPT = "var modal = document.getElementById(arguments[0]);"
+            + "if (!modal || (' ' + modal.className + ' ').indexOf(' in ') < 0) { return false; }"
+            + "var style = window.getComputedStyle(modal);"
+            + "if (style.display === 'none' || parseFloat(style.opacity) < 1) { return false; }"
+            + "var dialog = modal.querySelector('.modal-dialog');"
+            + "if (dialog) {"
+            + "  var transform = window.getComputedStyle(dialog).transform;"
+            + "  if (transform && transform !== 'none' && transform !== 'matrix(1, 0, 0, 1, 0, 0)') { return false; }"
+            + "}"
+            + "return modal.contains(document.activeElement);";
+
+    private static final AtomicLong waits = new AtomicLong();
+    private static final AtomicLong totalMillis = new AtomicLong();
+    private static final AtomicLong maxMillis = new AtomicLong();
+
+    /** Waits until the modal dialog is ready and returns its root element. */
+    static WebElement await(WebDriver browser) {
+        long start = System.currentTimeMillis();
+        Function<WebDriver, Boolean> ready = driver -> Boolean.TRUE.equals(
+                ((JavascriptExecutor) driver).executeScript(READY_SCRIPT, Ids.HAL_MODAL));
+        try (TestTimings.Span ignored = TestTimings.start(TestTimings.Category.WAIT)) {
+            waitGui().until(ready);
+        }
+        record(System.currentTimeMillis() - start);
+        return browser.findElement(By.id(Ids.HAL_MODAL));
+    }
+
+    private static void record(long millis) {
+        waits.incrementAndGet();
+        totalMillis.addAndGet(millis);
+        maxMillis.accumulateAndGet(millis, Math::max);
+        log.debug("Dialog ready after {} ms", millis);
+    }
+
+
+    // ------------------------------------------------------ statistics
+
+    /** Returns the number of dialog waits recorded so far. */
+    public static long waits() {
+        return waits.get();
+    }
+
+    /** Returns the accumulated time in ms spent waiting for dialogs. */
+    public static long totalMillis() {
+        return totalMillis.get();
+    }
+
+    /** Returns the longest wait in ms. */
+    public static long maxMillis() {
+        return maxMillis.get();
+    }
+
+    /** Returns the time in ms saved compared to a fixed sleep of {@code MEDIUM_TIMEOUT} per dialog. */
+    public static long savedMillis() {
+        return waits.get() * MEDIUM_TIMEOUT - totalMillis.get();
+    }
+
+    public static String summary() {
+        long count = waits.get();
+        long total = totalMillis.get();
+        return String.format("%d dialog waits, total %d ms, avg %d ms, max %d ms, saved %d ms", count, total,
+                count == 0 ? 0 : total / count, maxMillis.get(), savedMillis());
+    }
+
+    private DialogReadiness() {
+    }
+}
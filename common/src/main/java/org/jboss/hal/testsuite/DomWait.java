@@ -0,0 +1,289 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.TestTimings;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import static org.jboss.arquillian.graphene.Graphene.waitGui;
+
+/**
+ * Waits for DOM conditions inside the browser. Instead of polling the condition with one WebDriver call per interval,
+ * a {@code MutationObserver} is installed using {@code executeAsyncScript} which checks the condition whenever the DOM
+ * changes. The call returns as soon as the condition is met, so each wait costs a single round trip.
+ *
+ * <p>Usage is similar to {@code waitGui()}:</p>
+ * <pre>
+ * DomWait.element(browser, By.id("foo")).visible();
+ * DomWait.element(browser, inputElement).valueEquals("bar");
+ * </pre>
+ *
+ * <p>Selectors other than {@link By#id(String)} and {@link By#cssSelector(String)} cannot be evaluated in the browser
+ * and fall back to {@code waitGui()}. The timeout is configured by {@code dom.wait.timeout} in seconds (defaults to 3,
+ * like {@code waitGuiInterval} in {@code arquillian.xml}).</p>
+ */
+public final class DomWait {
+
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(
+            Long.parseLong(ConfigUtils.get("dom.wait.timeout", "3")));
+    private static final long MODEL_TIMEOUT = TimeUnit.SECONDS.toMillis(
+            Long.parseLong(ConfigUtils.get("dom.wait.model.timeout", "20")));
+    private static final String BY_ID = "By.id: ";
+    private static final String BY_CSS = "By.cssSelector: ";
+    private static final String CLASS = "class";
+
+    /**
+     * Arguments: element, selector (or list of selectors), root, condition, expected value, timeout, callback.
+     * Rechecks the condition on DOM mutations and - since property changes such as the value of an input or computed
+     * styles are no mutations - in a short interval inside the browser.
+     */
+    private static final String WAIT_SCRIPT = "var element = arguments[0], selector = arguments[1],"
+            + " root = arguments[2] || document, condition = arguments[3], expected = arguments[4],"
+            + " callback = arguments[6], done = false, observer, interval, timer;"
+            + "function find() { return element || root.querySelector(selector); }"
+            + "function visible(e) {"
+            + "  return e !== null && document.contains(e) && e.getClientRects().length > 0"
+            + "    && window.getComputedStyle(e).visibility !== 'hidden';"
+            + "}"
+            + "function check() {"
+            + "  if (condition === 'all-present') {"
+            + "    return selector.every(function(s) { return root.querySelector(s) !== null; });"
+            + "  }"
+            + "  var e = find();"
+            + "  switch (condition) {"
+            + "    case 'present': return e !== null && document.contains(e);"
+            + "    case 'not-present': return e === null || !document.contains(e);"
+            + "    case 'visible': return visible(e);"
+            + "    case 'not-visible': return !visible(e);"
+            + "    case 'enabled': return e !== null && !e.disabled;"
+            + "    case 'value': return e !== null && e.value === expected;"
+            + "    case 'class': return e !== null && e.classList.contains(expected);"
+            + "  }"
+            + "  return false;"
+            + "}"
+            + "function finish(result) {"
+            + "  done = true;"
+            + "  observer.disconnect(); clearInterval(interval); clearTimeout(timer);"
+            + "  callback(result);"
+            + "}"
+            + "observer = new MutationObserver(function() { if (!done && check()) { finish(true); } });"
+            + "if (check()) { callback(true); return; }"
+            + "observer.observe(document.documentElement,"
+            + "  { subtree: true, childList: true, attributes: true, characterData: true });"
+            + "interval = setInterval(function() { if (!done && check()) { finish(true); } }, 50);"
+            + "timer = setTimeout(function() { if (!done) { finish(check()); } }, arguments[5]);";
+
+    private static final Set<WebDriver> configured = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+    private static final AtomicLong waits = new AtomicLong();
+    private static final AtomicLong fallbacks = new AtomicLong();
+    private static final AtomicLong totalMillis = new AtomicLong();
+
+    /** Waits for the specified element. */
+    public static ElementWait element(WebDriver browser, WebElement element) {
+        return new ElementWait(browser, element, null, null, null);
+    }
+
+    /** Waits for the first element matching the selector. */
+    public static ElementWait element(WebDriver browser, By selector) {
+        return new ElementWait(browser, null, null, selector, css(selector));
+    }
+
+    /** Waits for the first element matching the selector inside the root element. */
+    public static ElementWait element(WebDriver browser, WebElement root, By selector) {
+        return new ElementWait(browser, null, root, selector, css(selector));
+    }
+
+    /**
+     * Waits until elements matching all CSS selectors are present. Since this is used for content loaded from the
+     * server (e.g. finder columns), the timeout is configured by {@code dom.wait.model.timeout} in seconds (defaults
+     * to 20, like {@code waitModelInterval} in {@code arquillian.xml}).
+     */
+    public static void allPresent(WebDriver browser, List<String> cssSelectors) {
+        await(browser, null, cssSelectors, null, "all-present", null, MODEL_TIMEOUT, cssSelectors.toString());
+    }
+
+    private static void await(WebDriver browser, WebElement element, Object selector, WebElement root,
+            String condition, String expected, long timeout, String description) {
+        if (configured.add(browser)) {
+            browser.manage().timeouts().setScriptTimeout(MODEL_TIMEOUT + 1000, TimeUnit.MILLISECONDS);
+        }
+        long start = System.currentTimeMillis();
+        Object result;
+        try (TestTimings.Span ignored = TestTimings.start(TestTimings.Category.WAIT)) {
+            result = ((JavascriptExecutor) browser).executeAsyncScript(WAIT_SCRIPT, element, selector, root,
+                    condition, expected, timeout);
+        } catch (ScriptTimeoutException e) {
+            result = false;
+        }
+        waits.incrementAndGet();
+        totalMillis.addAndGet(System.currentTimeMillis() - start);
+        if (!Boolean.TRUE.equals(result)) {
+            throw new TimeoutException(String.format("Element %s not %s%s after %d ms", description, condition,
+                    expected != null ? " '" + expected + "'" : "", timeout));
+        }
+    }
+
+    /** Returns the CSS selector or null if the selector cannot be expressed as CSS selector. */
+    private static String css(By selector) {
+        String value = selector.toString();
+        if (value.startsWith(BY_ID)) {
+            return Selectors.id(value.substring(BY_ID.length()));
+        } else if (value.startsWith(BY_CSS)) {
+            return value.substring(BY_CSS.length());
+        }
+        return null;
+    }
+
+
+    // ------------------------------------------------------ statistics
+
+    /** Returns the number of waits evaluated in the browser. */
+    public static long waits() {
+        return waits.get();
+    }
+
+    /** Returns the number of waits which fell back to {@code waitGui()}. */
+    public static long fallbacks() {
+        return fallbacks.get();
+    }
+
+    public static String summary() {
+        long count = waits.get();
+        long total = totalMillis.get();
+        return String.format("%d waits in the browser, total %d ms, avg %d ms, %d fallbacks to polling", count, total,
+                count == 0 ? 0 : total / count, fallbacks.get());
+    }
+
+    private DomWait() {
+    }
+
+
+    /** Conditions of an element. Each method blocks until the condition is met or throws a {@link TimeoutException}. */
+    public static class ElementWait {
+
+        private final WebDriver browser;
+        private final WebElement element;
+        private final WebElement root;
+        private final By selector;
+        private final String css;
+
+        private ElementWait(WebDriver browser, WebElement element, WebElement root, By selector, String css) {
+            this.browser = browser;
+            this.element = element;
+            this.root = root;
+            this.selector = selector;
+            this.css = css;
+        }
+
+        public void present() {
+            if (!fallback()) {
+                await("present", null);
+            } else if (root != null) {
+                waitGui().until().element(root, selector).is().present();
+            } else {
+                waitGui().until().element(selector).is().present();
+            }
+        }
+
+        public void notPresent() {
+            if (!fallback()) {
+                await("not-present", null);
+            } else if (root != null) {
+                waitGui().until().element(root, selector).is().not().present();
+            } else {
+                waitGui().until().element(selector).is().not().present();
+            }
+        }
+
+        public void visible() {
+            if (!fallback()) {
+                await("visible", null);
+            } else if (root != null) {
+                waitGui().until().element(root, selector).is().visible();
+            } else {
+                waitGui().until().element(selector).is().visible();
+            }
+        }
+
+        public void notVisible() {
+            if (!fallback()) {
+                await("not-visible", null);
+            } else if (root != null) {
+                waitGui().until().element(root, selector).is().not().visible();
+            } else {
+                waitGui().until().element(selector).is().not().visible();
+            }
+        }
+
+        public void enabled() {
+            if (!fallback()) {
+                await("enabled", null);
+            } else if (root != null) {
+                waitGui().until().element(root, selector).is().enabled();
+            } else {
+                waitGui().until().element(selector).is().enabled();
+            }
+        }
+
+        public void valueEquals(String value) {
+            if (!fallback()) {
+                await("value", value);
+            } else if (root != null) {
+                waitGui().until().element(root, selector).value().equalTo(value);
+            } else {
+                waitGui().until().element(selector).value().equalTo(value);
+            }
+        }
+
+        public void classContains(String className) {
+            if (!fallback()) {
+                await(CLASS, className);
+            } else if (root != null) {
+                waitGui().until().element(root, selector).attribute(CLASS).contains(className);
+            } else {
+                waitGui().until().element(selector).attribute(CLASS).contains(className);
+            }
+        }
+
+        /** Returns true if the condition cannot be evaluated in the browser. */
+        private boolean fallback() {
+            boolean fallback = element == null && css == null;
+            if (fallback) {
+                fallbacks.incrementAndGet();
+            }
+            return fallback;
+        }
+
+        private void await(String condition, String expected) {
+            DomWait.await(browser, element, css, root, condition, expected, TIMEOUT,
+                    element != null ? element.toString() : css);
+        }
+    }
+}
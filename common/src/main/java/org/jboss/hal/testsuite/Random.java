@@ -22,6 +22,7 @@ import org.apache.commons.lang3.RandomUtils;
 import org.apache.commons.text.RandomStringGenerator;
 import org.jboss.dmr.ModelNode;
 import org.jboss.hal.resources.Ids;
+import org.jboss.hal.testsuite.arquillian.Sharding;
 
 import static org.jboss.hal.dmr.ModelDescriptionConstants.VALUE;
 
@@ -32,13 +33,17 @@ public class Random {
     private static final RandomStringGenerator GENERATOR = new RandomStringGenerator.Builder().withinRange('a', 'z')
             .build();
 
-    /** Returns a random name ('a' - 'z') for resource names or attribute values. */
+    /**
+     * Returns a random name ('a' - 'z') for resource names or attribute values. If the tests are sharded, the name
+     * starts with the {@linkplain Sharding#prefix() prefix} of the current shard.
+     */
     public static String name() {
-        return GENERATOR.generate(LENGTH);
+        return name(LENGTH);
     }
 
     public static String name(int length) {
-        return GENERATOR.generate(length);
+        String prefix = length > 1 ? Sharding.prefix() : "";
+        return prefix + GENERATOR.generate(length - prefix.length());
     }
 
     /** Returns a JNDI name starting with "java:jboss/" followed by a random name. */
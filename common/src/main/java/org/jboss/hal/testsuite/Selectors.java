@@ -25,6 +25,14 @@ public class Selectors {
         return ":contains('" + value + "')";
     }
 
+    /**
+     * Returns the CSS attribute selector {@code [id='<id>']}. Unlike {@code #<id>} this is valid for all IDs, also for
+     * IDs which start with a digit or contain characters like {@code .} or {@code :}.
+     */
+    public static String id(String id) {
+        return "[id='" + id.replace("\\", "\\\\").replace("'", "\\'") + "']";
+    }
+
     private Selectors() {
     }
 }
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.arquillian;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.arquillian.core.api.Instance;
+import org.jboss.arquillian.core.api.annotation.Inject;
+import org.jboss.arquillian.core.spi.ServiceLoader;
+import org.jboss.arquillian.drone.spi.Destructor;
+import org.jboss.arquillian.drone.spi.Instantiator;
+import org.jboss.arquillian.drone.webdriver.configuration.WebDriverConfiguration;
+import org.jboss.arquillian.drone.webdriver.factory.WebDriverFactory;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.TestTimings;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reuses browser sessions across test classes instead of starting a new browser for each class. Enabled by setting
+ * {@code suite.browser.reuse} to {@code true}. Otherwise browsers are started and quit as usual, but the start-up
+ * time is still recorded.
+ *
+ * <p>Registered as Drone instantiator and destructor for {@link WebDriver} with a higher precedence than the default
+ * {@link WebDriverFactory}. When Drone destroys a browser at the end of a test class, the session is reset and kept
+ * (up to {@code suite.browser.pool.size} sessions). The next test class gets the warm session if it passes a health
+ * check, otherwise a new browser is started. The reset removes open dialogs, notifications and the place token. If
+ * the class changed cookies or the local storage (e.g. to run as another RBAC role), these are cleared and the console
+ * is unloaded, so that the next navigation bootstraps the console again.</p>
+ *
+ * <p>Code outside of Drone (e.g. the {@link org.jboss.hal.testsuite.DeploymentClient}) can {@linkplain #borrow()
+ * borrow} additional browsers which are started with the configuration of the last browser started by Drone. Borrowed
+ * browsers are always pooled when {@linkplain #release(WebDriver) released}.</p>
+ */
+public class BrowserSessionPool implements Instantiator<WebDriver, WebDriverConfiguration>, Destructor<WebDriver> {
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserSessionPool.class);
+    private static final boolean ENABLED = Boolean.parseBoolean(ConfigUtils.get("suite.browser.reuse", "false"));
+    private static final int SIZE = Integer.parseInt(ConfigUtils.get("suite.browser.pool.size", "1"));
+    private static final String BLANK = "about:blank";
+
+    /**
+     * Closes dialogs and notifications and resets the place token. Returns {@code true} if cookies or storage have been
+     * used, in which case they are cleared.
+     */
+    private static final String RESET_SCRIPT = "if (window.$) {"
+            + "  $('.modal.in').modal('hide');"
+            + "  $('.toast-notifications-list-pf').empty();"
+            + "}"
+            + "if (location.hash) { location.hash = ''; }"
+            + "var dirty = document.cookie.length > 0 || localStorage.length > 0 || sessionStorage.length > 0;"
+            + "localStorage.clear();"
+            + "sessionStorage.clear();"
+            + "return dirty;";
+
+    private static final Deque<WebDriver> idle = new ArrayDeque<>();
+    private static final AtomicLong created = new AtomicLong();
+    private static final AtomicLong reused = new AtomicLong();
+    private static final AtomicLong recycled = new AtomicLong();
+    private static final AtomicLong creationMillis = new AtomicLong();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(BrowserSessionPool::quitAll, "browser-session-pool-shutdown"));
+    }
+
+    private static volatile Instantiator<WebDriver, WebDriverConfiguration> factory;
+    private static volatile WebDriverConfiguration lastConfiguration;
+
+    @Inject private Instance<ServiceLoader> serviceLoader;
+
+    @Override
+    public int getPrecedence() {
+        return 1;
+    }
+
+    @Override
+    public WebDriver createInstance(WebDriverConfiguration configuration) {
+        factory = delegate();
+        lastConfiguration = configuration;
+        WebDriver browser = ENABLED ? checkout() : null;
+        if (browser != null) {
+            reused.incrementAndGet();
+            return browser;
+        }
+        return start(configuration);
+    }
+
+    @Override
+    public void destroyInstance(WebDriver browser) {
+        boolean kept = false;
+        if (ENABLED && reset(browser)) {
+            kept = keep(browser);
+        }
+        if (!kept) {
+            quit(browser);
+        }
+    }
+
+    /**
+     * Returns an idle browser or starts a new one using the configuration of the last browser started by Drone. Call
+     * {@link #release(WebDriver)} when the browser is no longer needed.
+     */
+    public static WebDriver borrow() {
+        WebDriver browser = checkout();
+        if (browser != null) {
+            reused.incrementAndGet();
+            return browser;
+        }
+        if (factory == null || lastConfiguration == null) {
+            throw new IllegalStateException("Unable to start a browser: No browser has been started by Drone yet.");
+        }
+        return start(lastConfiguration);
+    }
+
+    /** Deletes all cookies of a borrowed browser and keeps it for the next {@link #borrow()}. */
+    public static void release(WebDriver browser) {
+        boolean kept = false;
+        try {
+            browser.manage().deleteAllCookies();
+            browser.navigate().to(BLANK);
+            kept = keep(browser);
+        } catch (WebDriverException e) {
+            log.debug("Unable to reset borrowed browser: {}", e.getMessage());
+        }
+        if (!kept) {
+            quit(browser);
+        }
+    }
+
+    private static WebDriver start(WebDriverConfiguration configuration) {
+        WebDriver browser;
+        long start = System.currentTimeMillis();
+        try (TestTimings.Span ignored = TestTimings.start(TestTimings.Category.BROWSER)) {
+            browser = factory.createInstance(configuration);
+        }
+        creationMillis.addAndGet(System.currentTimeMillis() - start);
+        created.incrementAndGet();
+        return browser;
+    }
+
+    private static boolean keep(WebDriver browser) {
+        synchronized (idle) {
+            if (idle.size() < SIZE) {
+                idle.push(browser);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /** Returns a healthy idle session or null. */
+    private static WebDriver checkout() {
+        while (true) {
+            WebDriver browser;
+            synchronized (idle) {
+                browser = idle.poll();
+            }
+            if (browser == null) {
+                return null;
+            }
+            if (isHealthy(browser)) {
+                return browser;
+            }
+            log.debug("Recycle unhealthy browser session");
+            recycled.incrementAndGet();
+            quit(browser);
+        }
+    }
+
+    private static boolean isHealthy(WebDriver browser) {
+        try {
+            browser.getWindowHandle();
+            return Boolean.TRUE.equals(((JavascriptExecutor) browser).executeScript("return true;"));
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    private static boolean reset(WebDriver browser) {
+        try {
+            Object dirty = ((JavascriptExecutor) browser).executeScript(RESET_SCRIPT);
+            if (Boolean.TRUE.equals(dirty)) {
+                browser.manage().deleteAllCookies();
+                browser.navigate().to(BLANK);
+            }
+            return true;
+        } catch (WebDriverException e) {
+            log.debug("Unable to reset browser session: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static void quit(WebDriver browser) {
+        try {
+            browser.quit();
+        } catch (WebDriverException e) {
+            log.debug("Unable to quit browser: {}", e.getMessage());
+        }
+    }
+
+    private static void quitAll() {
+        synchronized (idle) {
+            idle.forEach(BrowserSessionPool::quit);
+            idle.clear();
+        }
+    }
+
+    /** Returns the default instantiator of Drone, which is used to start new browsers. */
+    @SuppressWarnings("unchecked")
+    private Instantiator<WebDriver, WebDriverConfiguration> delegate() {
+        for (Instantiator<?, ?> instantiator : serviceLoader.get().all(Instantiator.class)) {
+            if (instantiator instanceof WebDriverFactory) {
+                return (Instantiator<WebDriver, WebDriverConfiguration>) instantiator;
+            }
+        }
+        throw new IllegalStateException("No " + WebDriverFactory.class.getName() + " registered");
+    }
+
+
+    // ------------------------------------------------------ statistics
+
+    public static long created() {
+        return created.get();
+    }
+
+    public static long reused() {
+        return reused.get();
+    }
+
+    public static long recycled() {
+        return recycled.get();
+    }
+
+    /** Returns the estimated time in ms saved by reusing sessions based on the average browser start time. */
+    public static long savedMillis() {
+        long count = created.get();
+        return count == 0 ? 0 : reused.get() * (creationMillis.get() / count);
+    }
+
+    public static String summary() {
+        return String.format("%d browsers started, %d sessions reused, %d recycled, saved about %d ms",
+                created.get(), reused.get(), recycled.get(), savedMillis());
+    }
+}
@@ -24,9 +24,13 @@ import org.jboss.arquillian.graphene.enricher.AbstractSearchContextEnricher;
 import org.jboss.arquillian.graphene.enricher.ReflectionHelper;
 import org.jboss.hal.testsuite.Console;
 import org.jboss.hal.testsuite.CrudOperations;
+import org.jboss.hal.testsuite.DeploymentClient;
 import org.openqa.selenium.SearchContext;
 
-/** Injects an instance of {@link Console} into test classes, pages or page fragments. */
+/**
+ * Injects an instance of {@link Console} into test classes, pages or page fragments. Also injects {@link
+ * CrudOperations} and {@link DeploymentClient}.
+ */
 public class ConsoleEnricher extends AbstractSearchContextEnricher {
 
     @Override
@@ -43,6 +47,9 @@ public class ConsoleEnricher extends AbstractSearchContextEnricher {
                 enrichRecursively(searchContext, crud);
                 setValue(field, target, crud);
             }
+            if (field.getType().isAssignableFrom(DeploymentClient.class)) {
+                setValue(field, target, new DeploymentClient());
+            }
         }
     }
 
@@ -0,0 +1,409 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.arquillian;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.test.spi.event.suite.AfterSuite;
+import org.jboss.arquillian.test.spi.event.suite.BeforeSuite;
+import org.jboss.dmr.ModelNode;
+import org.jboss.hal.testsuite.creaper.ManagementClientPool;
+import org.jboss.hal.testsuite.creaper.ReloadCoordinator;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+import org.wildfly.extras.creaper.core.online.operations.Operations;
+import org.wildfly.extras.creaper.core.online.operations.ReadResourceOption;
+
+import static org.jboss.hal.dmr.ModelDescriptionConstants.ACCESS;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.AUTHORIZATION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.COMPOSITE;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.EXTENSION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.OP;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.PROFILE;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.READ_CHILDREN_TYPES_OPERATION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.READ_OPERATION_DESCRIPTION_OPERATION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.READ_OPERATION_NAMES_OPERATION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.READ_RESOURCE_DESCRIPTION_OPERATION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.STEPS;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.SUBSYSTEM;
+
+/**
+ * Caching HTTP proxy running inside the test JVM between the browser and the management endpoint. Enabled by setting
+ * {@code suite.proxy} to {@code true} and pointing {@code suite.url} to the proxy (see the {@code proxy} profile).
+ *
+ * <p>The proxy forwards all requests to {@code suite.proxy.target} (defaults to the management endpoint). Successful
+ * {@code GET} requests outside of {@code /management} (the console itself) are served from memory once they have been
+ * loaded. If {@code suite.proxy.memoize} is {@code true}, the responses to DMR operations which only read the
+ * management model description ({@code read-resource-description}, {@code read-children-types},
+ * {@code read-operation-names} and {@code read-operation-description}, also as part of a composite) are memoized per
+ * user. Memoized responses are dropped after a reload by the {@link ReloadCoordinator}, when calling {@link
+ * #invalidate()} and when the model fingerprint (extensions, subsystems and access control configuration) changed.
+ * The fingerprint is read when a description operation arrives after a pause of at least {@code
+ * suite.proxy.memoize.validation} ms (defaults to 1000), i.e. about once per page load. This covers reloads which
+ * don't use the {@link ReloadCoordinator} as well, as long as the reload applies one of these model changes.</p>
+ *
+ * <p>The proxy listens on {@code suite.proxy.port} (defaults to 9980) and keeps at most {@code suite.proxy.cache.size}
+ * MB (defaults to 256) in memory.</p>
+ */
+public class ConsoleProxy {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsoleProxy.class);
+    private static final boolean ENABLED = Boolean.parseBoolean(ConfigUtils.get("suite.proxy", "false"));
+    private static final boolean MEMOIZE = Boolean.parseBoolean(ConfigUtils.get("suite.proxy.memoize", "false"));
+    private static final int PORT = Integer.parseInt(ConfigUtils.get("suite.proxy.port", "9980"));
+    private static final String TARGET = ConfigUtils.get("suite.proxy.target",
+            "http://" + ConfigUtils.get("as.managementAddress", "localhost") + ":"
+                    + ConfigUtils.get("as.managementPort", "9990"));
+    private static final long MAX_BYTES = Long.parseLong(ConfigUtils.get("suite.proxy.cache.size", "256")) << 20;
+    private static final long VALIDATION_PAUSE = Long.parseLong(
+            ConfigUtils.get("suite.proxy.memoize.validation", "1000"));
+
+    private static final String GET = "GET";
+    private static final String POST = "POST";
+    private static final String MANAGEMENT = "/management";
+    private static final String DMR_ENCODED = "application/dmr-encoded";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final Pattern USERNAME = Pattern.compile("username=\"([^\"]*)\"");
+    private static final Set<String> HOP_BY_HOP = new HashSet<>(Arrays.asList("connection", "content-length",
+            "host", "keep-alive", "origin", "proxy-authenticate", "proxy-authorization", "te", "trailer",
+            "transfer-encoding", "upgrade"));
+    private static final Set<String> DESCRIPTION_OPERATIONS = new HashSet<>(Arrays.asList(
+            READ_RESOURCE_DESCRIPTION_OPERATION, READ_CHILDREN_TYPES_OPERATION, READ_OPERATION_NAMES_OPERATION,
+            READ_OPERATION_DESCRIPTION_OPERATION));
+
+    private static final Map<String, CachedResponse> assets = new ConcurrentHashMap<>();
+    private static final Map<String, CachedResponse> operations = new ConcurrentHashMap<>();
+    private static final AtomicLong cachedBytes = new AtomicLong();
+    private static final AtomicLong assetHits = new AtomicLong();
+    private static final AtomicLong assetMisses = new AtomicLong();
+    private static final AtomicLong operationHits = new AtomicLong();
+    private static final AtomicLong operationMisses = new AtomicLong();
+    private static final AtomicLong bytesSaved = new AtomicLong();
+    private static volatile long reloads;
+    private static String fingerprint;
+    private static long lastDescription;
+    private static HttpServer server;
+    private static ExecutorService executor;
+
+    public void start(@Observes BeforeSuite event) throws IOException {
+        if (ENABLED) {
+            startServer();
+        }
+    }
+
+    public void stop(@Observes AfterSuite event) {
+        stopServer();
+    }
+
+    private static synchronized void startServer() throws IOException {
+        if (server == null) {
+            executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "console-proxy");
+                thread.setDaemon(true);
+                return thread;
+            });
+            server = HttpServer.create(new InetSocketAddress(PORT), 0);
+            server.createContext("/", ConsoleProxy::handle);
+            server.setExecutor(executor);
+            server.start();
+            log.info("Console proxy listening on port {}, forwarding to {}", PORT, TARGET);
+        }
+    }
+
+    private static synchronized void stopServer() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            executor = null;
+        }
+    }
+
+    /** Drops all memoized DMR responses. */
+    public static void invalidate() {
+        operations.values().forEach(response -> cachedBytes.addAndGet(-response.body.length));
+        operations.clear();
+    }
+
+
+    // ------------------------------------------------------ request handling
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String uri = exchange.getRequestURI().toString();
+            byte[] body = readFully(exchange.getRequestBody());
+
+            if (GET.equals(method) && !uri.startsWith(MANAGEMENT)) {
+                String key = uri + "|" + exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                serve(exchange, key, assets, assetHits, assetMisses, method, uri, body);
+
+            } else if (MEMOIZE && POST.equals(method) && uri.startsWith(MANAGEMENT) && isDescription(exchange, body)) {
+                String username = username(exchange);
+                if (username != null) {
+                    checkModel();
+                    String key = username + "|" + new String(body, StandardCharsets.ISO_8859_1);
+                    serve(exchange, key, operations, operationHits, operationMisses, method, uri, body);
+                } else {
+                    send(exchange, forward(exchange, method, uri, body));
+                }
+
+            } else {
+                send(exchange, forward(exchange, method, uri, body));
+            }
+        } catch (IOException e) {
+            log.debug("Unable to proxy {} {}: {}", exchange.getRequestMethod(), exchange.getRequestURI(),
+                    e.getMessage());
+            if (exchange.getResponseCode() == -1) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_BAD_GATEWAY, -1);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void serve(HttpExchange exchange, String key, Map<String, CachedResponse> cache, AtomicLong hits,
+            AtomicLong misses, String method, String uri, byte[] body) throws IOException {
+        CachedResponse response = cache.get(key);
+        if (response != null) {
+            hits.incrementAndGet();
+            bytesSaved.addAndGet(response.body.length);
+        } else {
+            misses.incrementAndGet();
+            response = forward(exchange, method, uri, body);
+            if (response.status == HttpURLConnection.HTTP_OK
+                    && cachedBytes.get() + response.body.length <= MAX_BYTES
+                    && cache.putIfAbsent(key, response) == null) {
+                cachedBytes.addAndGet(response.body.length);
+            }
+        }
+        send(exchange, response);
+    }
+
+    private static CachedResponse forward(HttpExchange exchange, String method, String uri, byte[] body)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(TARGET + uri).openConnection();
+        connection.setInstanceFollowRedirects(false);
+        connection.setUseCaches(false);
+        connection.setRequestMethod(method);
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP.contains(name.toLowerCase())) {
+                values.forEach(value -> connection.addRequestProperty(name, value));
+            }
+        });
+        if (body.length > 0) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+        try {
+            int status = connection.getResponseCode();
+            InputStream in = status >= HttpURLConnection.HTTP_BAD_REQUEST
+                    ? connection.getErrorStream()
+                    : connection.getInputStream();
+            byte[] responseBody = in != null ? readFully(in) : new byte[0];
+            return new CachedResponse(status, connection.getHeaderFields(), responseBody);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static void send(HttpExchange exchange, CachedResponse response) throws IOException {
+        response.headers.forEach((name, values) -> {
+            if (name != null && !HOP_BY_HOP.contains(name.toLowerCase())) {
+                exchange.getResponseHeaders().put(name, values);
+            }
+        });
+        boolean empty = response.body.length == 0 || "HEAD".equals(exchange.getRequestMethod());
+        exchange.sendResponseHeaders(response.status, empty ? -1 : response.body.length);
+        if (!empty) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response.body);
+            }
+        }
+    }
+
+    /** Returns whether the request contains only operations which read the management model description. */
+    private static boolean isDescription(HttpExchange exchange, byte[] body) {
+        try {
+            String contentType = exchange.getRequestHeaders().getFirst(CONTENT_TYPE);
+            ModelNode operation = contentType != null && contentType.startsWith(DMR_ENCODED)
+                    ? ModelNode.fromBase64(new ByteArrayInputStream(body))
+                    : ModelNode.fromJSONString(new String(body, StandardCharsets.UTF_8));
+            return isDescription(operation);
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isDescription(ModelNode operation) {
+        String name = operation.get(OP).asString();
+        if (COMPOSITE.equals(name)) {
+            List<ModelNode> steps = operation.get(STEPS).asList();
+            return !steps.isEmpty() && steps.stream().allMatch(ConsoleProxy::isDescription);
+        }
+        return DESCRIPTION_OPERATIONS.contains(name);
+    }
+
+    private static String username(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization != null) {
+            Matcher matcher = USERNAME.matcher(authorization);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drops the memoized operations if the server has been reloaded by the {@link ReloadCoordinator} or if the model
+     * fingerprint changed in the meantime. The fingerprint is only read after a pause between two description
+     * operations.
+     */
+    private static synchronized void checkModel() {
+        long current = ReloadCoordinator.reloads();
+        if (current != reloads) {
+            reloads = current;
+            invalidate();
+        }
+        long now = System.currentTimeMillis();
+        boolean pause = now - lastDescription >= VALIDATION_PAUSE;
+        lastDescription = now;
+        if (!pause) {
+            return;
+        }
+        String currentFingerprint;
+        try {
+            currentFingerprint = modelFingerprint();
+        } catch (IOException | RuntimeException e) {
+            log.debug("Unable to read model fingerprint, dropping memoized operations: {}", e.getMessage());
+            currentFingerprint = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            currentFingerprint = null;
+        }
+        if (currentFingerprint == null || !currentFingerprint.equals(fingerprint)) {
+            if (fingerprint != null) {
+                log.debug("Model changed, dropping {} memoized operations", operations.size());
+            }
+            invalidate();
+        }
+        fingerprint = currentFingerprint;
+    }
+
+    /**
+     * Reads the parts of the model which change the descriptions returned to the console: the extensions, the
+     * subsystems (of all profiles in domain mode) and the access control configuration.
+     */
+    private static String modelFingerprint() throws IOException, InterruptedException {
+        try (ManagementClientPool.Lease lease = ManagementClientPool.defaultPool().lease()) {
+            Operations ops = new Operations(lease.client());
+            StringBuilder builder = new StringBuilder();
+            builder.append(ops.readChildrenNames(Address.root(), EXTENSION).value());
+            if (ConfigUtils.isDomain()) {
+                for (String profile : ops.readChildrenNames(Address.root(), PROFILE).stringListValue()) {
+                    builder.append(profile).append(ops.readChildrenNames(Address.of(PROFILE, profile), SUBSYSTEM)
+                            .value());
+                }
+            } else {
+                builder.append(ops.readChildrenNames(Address.root(), SUBSYSTEM).value());
+            }
+            builder.append(ops.readResource(Address.coreService("management").and(ACCESS, AUTHORIZATION),
+                    ReadResourceOption.RECURSIVE).value());
+            return builder.toString();
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+
+    // ------------------------------------------------------ statistics
+
+    public static long assetHits() {
+        return assetHits.get();
+    }
+
+    public static long assetMisses() {
+        return assetMisses.get();
+    }
+
+    public static long operationHits() {
+        return operationHits.get();
+    }
+
+    public static long operationMisses() {
+        return operationMisses.get();
+    }
+
+    /** Returns the number of bytes served from memory instead of the server. */
+    public static long bytesSaved() {
+        return bytesSaved.get();
+    }
+
+    public static String summary() {
+        return String.format("%d / %d assets and %d / %d description operations served from memory, %d KB saved",
+                assetHits(), assetHits() + assetMisses(), operationHits(), operationHits() + operationMisses(),
+                bytesSaved() >> 10);
+    }
+
+
+    private static class CachedResponse {
+
+        private final int status;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+
+        CachedResponse(int status, Map<String, List<String>> headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
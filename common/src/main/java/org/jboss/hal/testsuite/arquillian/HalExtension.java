@@ -16,6 +16,8 @@
 package org.jboss.hal.testsuite.arquillian;
 
 import org.jboss.arquillian.core.spi.LoadableExtension;
+import org.jboss.arquillian.drone.spi.Destructor;
+import org.jboss.arquillian.drone.spi.Instantiator;
 import org.jboss.arquillian.graphene.spi.enricher.SearchContextTestEnricher;
 
 public class HalExtension implements LoadableExtension {
@@ -23,5 +25,12 @@ public class HalExtension implements LoadableExtension {
     @Override
     public void register(ExtensionBuilder builder) {
         builder.service(SearchContextTestEnricher.class, ConsoleEnricher.class);
+        builder.observer(StatisticsReporter.class);
+        builder.observer(ShardCoordinator.class);
+        builder.observer(ReloadSynchronizer.class);
+        builder.observer(ConsoleProxy.class);
+        builder.observer(DeploymentClientObserver.class);
+        builder.service(Instantiator.class, BrowserSessionPool.class);
+        builder.service(Destructor.class, BrowserSessionPool.class);
     }
 }
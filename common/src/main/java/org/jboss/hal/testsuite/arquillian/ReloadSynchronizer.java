@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.arquillian;
+
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.test.spi.event.suite.AfterSuite;
+import org.jboss.arquillian.test.spi.event.suite.Before;
+import org.jboss.hal.testsuite.creaper.ManagementClientPool;
+import org.jboss.hal.testsuite.creaper.ReloadCoordinator;
+
+/**
+ * Executes the reloads requested by the {@link ReloadCoordinator} right before the next test method and at the end of
+ * the suite. Reloads requested in {@code @AfterClass} of one class and {@code @BeforeClass} of the next class are
+ * merged into one reload. If no reload is pending, no management client is touched.
+ */
+public class ReloadSynchronizer {
+
+    public void beforeTest(@Observes Before event) throws Exception {
+        if (!ReloadCoordinator.isPending()) {
+            return;
+        }
+        ReloadCoordinator.reloadPending(ManagementClientPool.defaultPool().forCurrentThread());
+    }
+
+    public void afterSuite(@Observes AfterSuite event) throws Exception {
+        if (!ReloadCoordinator.isPending()) {
+            return;
+        }
+        ReloadCoordinator.reloadPending(ManagementClientPool.defaultPool().forCurrentThread());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.arquillian;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.test.spi.event.suite.AfterClass;
+import org.jboss.arquillian.test.spi.event.suite.BeforeClass;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serializes {@linkplain Sharding#isExclusive(Class) exclusive} test classes across the shards. Uses a file lock as
+ * readers-writer lock: regular test classes hold a shared lock, exclusive test classes an exclusive lock. Thus an
+ * exclusive test class waits until the test classes in the other shards have finished and blocks them while it
+ * runs.
+ *
+ * <p>File locks don't prefer writers. Without further measures, shards which release the shared lock and immediately
+ * acquire it again for their next test class could keep an exclusive test class waiting until their queues are
+ * drained. Therefore a second lock file signals the intent to write: an exclusive test class holds an exclusive lock
+ * on it while it waits for the exclusive lock. Regular test classes briefly acquire and release a shared lock on it
+ * first, so they queue up behind a waiting exclusive test class.</p>
+ */
+public class ShardCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardCoordinator.class);
+
+    private FileChannel channel;
+    private FileLock lock;
+
+    public void acquire(@Observes BeforeClass event) throws IOException {
+        if (!Sharding.isEnabled()) {
+            return;
+        }
+        Class<?> testClass = event.getTestClass().getJavaClass();
+        boolean exclusive = Sharding.isExclusive(testClass);
+        long start = System.currentTimeMillis();
+        try (FileChannel intentChannel = open(intentFile());
+             FileLock ignored = intentChannel.lock(0, Long.MAX_VALUE, !exclusive)) {
+            if (exclusive) {
+                channel = open(lockFile());
+                lock = channel.lock(0, Long.MAX_VALUE, false);
+            }
+        }
+        if (!exclusive) {
+            channel = open(lockFile());
+            lock = channel.lock(0, Long.MAX_VALUE, true);
+        }
+        log.debug("Shard {} acquired {} lock for {} after {} ms", Sharding.shard(), exclusive ? "exclusive" : "shared",
+                testClass.getSimpleName(), System.currentTimeMillis() - start);
+    }
+
+    public void release(@Observes AfterClass event) throws IOException {
+        if (lock != null) {
+            lock.release();
+            lock = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /** Signals that an exclusive test class waits for the lock. */
+    private static Path intentFile() {
+        return Paths.get(lockFile() + ".intent");
+    }
+
+    /** The lock file is shared by all shards which run against the same console. */
+    private static Path lockFile() {
+        String defaultFile = Paths.get(System.getProperty("java.io.tmpdir"),
+                "hal-testsuite-" + Integer.toHexString(ConfigUtils.get("suite.url", "").hashCode()) + ".lock")
+                .toString();
+        return Paths.get(ConfigUtils.get("suite.shard.lock", defaultFile));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.arquillian;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.jboss.hal.testsuite.creaper.ReloadCoordinator;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+
+/**
+ * Information about the shard the current JVM is running in. Sharding is enabled by the {@code sharded} profile which
+ * runs the test classes in several surefire forks in parallel. Each fork has its own browser and gets its test classes
+ * from the queue of surefire, so each test class runs in exactly one fork.
+ *
+ * <p>Test classes which affect other tests running in parallel are {@linkplain #isExclusive(Class) exclusive} and are
+ * serialized by the {@link ShardCoordinator}.</p>
+ */
+public final class Sharding {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(ConfigUtils.get("suite.sharding", "false"));
+    private static final int SHARD = parseShard(ConfigUtils.get("suite.shard", "1"));
+    private static final Pattern EXCLUSIVE_CLASSES = Pattern.compile(ConfigUtils.get("suite.shard.exclusive",
+            ".*\\.(accesscontrol|rbac|socketbinding|interfaces?|runtime\\.server)\\..*"));
+
+    /**
+     * Test classes referencing one of these classes reload the server and are therefore exclusive. Detected on the
+     * byte code level, so that local variables and fields of super classes are covered as well.
+     */
+    private static final String[] RELOADING_CLASSES = {
+            "org/wildfly/extras/creaper/core/online/operations/admin/Administration",
+            ReloadCoordinator.class.getName().replace('.', '/')
+    };
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /** Returns the one-based shard number or 1 if sharding is disabled. */
+    public static int shard() {
+        return ENABLED ? SHARD : 1;
+    }
+
+    /**
+     * Returns a lowercase letter identifying the current shard or an empty string if sharding is disabled. Used as
+     * prefix for random resource names to keep the resources of the shards apart.
+     */
+    public static String prefix() {
+        return ENABLED ? String.valueOf((char) ('a' + (SHARD - 1) % 26)) : "";
+    }
+
+    /**
+     * Whether the test class must not run in parallel with other test classes. That's the case for classes which are
+     * annotated with {@link Exclusive}, which match the pattern in {@code suite.shard.exclusive} (access control,
+     * socket bindings, interfaces, ...) or which use {@code Administration} or the {@link ReloadCoordinator} to reload
+     * the server (also in nested or anonymous classes).
+     */
+    public static boolean isExclusive(Class<?> testClass) {
+        for (Class<?> c = testClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            if (c.isAnnotationPresent(Exclusive.class) || EXCLUSIVE_CLASSES.matcher(c.getName()).matches()
+                    || reloadsServer(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks the byte code of the class and of its nested, local and anonymous classes ({@code Foo$*.class}). Nested
+     * classes are only found if the class has been loaded from a directory (e.g. {@code target/test-classes}), not if
+     * it has been loaded from a JAR.
+     */
+    private static boolean reloadsServer(Class<?> c) {
+        String resource = c.getName().replace('.', '/') + ".class";
+        URL url = c.getClassLoader().getResource(resource);
+        if (url == null) {
+            return false;
+        }
+        try {
+            List<Path> nestedClasses = new ArrayList<>();
+            if ("file".equals(url.getProtocol())) {
+                Path classFile = Paths.get(url.toURI());
+                String glob = c.getName().substring(c.getName().lastIndexOf('.') + 1) + "$*.class";
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(classFile.getParent(), glob)) {
+                    stream.forEach(nestedClasses::add);
+                }
+            }
+            try (InputStream in = url.openStream()) {
+                if (referencesReloadingClass(in)) {
+                    return true;
+                }
+            }
+            for (Path nestedClass : nestedClasses) {
+                try (InputStream in = Files.newInputStream(nestedClass)) {
+                    if (referencesReloadingClass(in)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } catch (IOException | URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private static boolean referencesReloadingClass(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        // class names are stored as (modified) UTF-8 in the constant pool
+        String bytecode = new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+        for (String reloadingClass : RELOADING_CLASSES) {
+            if (bytecode.contains(reloadingClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int parseShard(String value) {
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private Sharding() {
+    }
+}
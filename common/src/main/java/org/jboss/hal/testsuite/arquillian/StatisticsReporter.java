@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.arquillian;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.test.spi.event.suite.After;
+import org.jboss.arquillian.test.spi.event.suite.AfterClass;
+import org.jboss.arquillian.test.spi.event.suite.AfterSuite;
+import org.jboss.arquillian.test.spi.event.suite.Before;
+import org.jboss.arquillian.test.spi.event.suite.BeforeClass;
+import org.jboss.hal.testsuite.DialogReadiness;
+import org.jboss.hal.testsuite.DomWait;
+import org.jboss.hal.testsuite.creaper.ManagementClientPool;
+import org.jboss.hal.testsuite.creaper.PropagationStatistics;
+import org.jboss.hal.testsuite.creaper.ReloadCoordinator;
+import org.jboss.hal.testsuite.creaper.ResourceDescriptionCache;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.TestTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Assigns the statistics collected during the test run to the current test and logs / exports them once the suite
+ * has finished. The {@linkplain TestTimings test timings} of the slowest tests ({@code suite.statistics.top}, defaults
+ * to 10) are logged with the time per category. The exported files are written to the directory specified by {@code
+ * suite.statistics.dir} (defaults to {@code target}). If {@linkplain Sharding sharding} is enabled, the file names
+ * contain the shard number (e.g. {@code test-timings-2.csv}), so that the forks don't overwrite each other's files.
+ */
+public class StatisticsReporter {
+
+    private static final Logger log = LoggerFactory.getLogger(StatisticsReporter.class);
+    private static final int TOP_TESTS = Integer.parseInt(ConfigUtils.get("suite.statistics.top", "10"));
+
+    public void startClass(@Observes BeforeClass event) {
+        TestTimings.startTest(event.getTestClass().getName());
+    }
+
+    public void startTest(@Observes Before event) {
+        String test = event.getTestClass().getName() + "#" + event.getTestMethod().getName();
+        PropagationStatistics.startTest(test);
+        TestTimings.startTest(test);
+    }
+
+    public void finishTest(@Observes After event) {
+        TestTimings.startTest(event.getTestClass().getName());
+    }
+
+    public void finishClass(@Observes AfterClass event) {
+        TestTimings.startTest(null);
+    }
+
+    public void report(@Observes AfterSuite event) {
+        log.info("Dialog readiness: {}", DialogReadiness.summary());
+        log.info("DOM waits: {}", DomWait.summary());
+        log.info("Model propagation: {}", PropagationStatistics.total());
+        ManagementClientPool.pools().values().forEach(pool -> log.info("Management client pool {}", pool));
+        log.info("Resource description cache: {}", ResourceDescriptionCache.summary());
+        log.info("Reloads: {}", ReloadCoordinator.summary());
+        log.info("Browser sessions: {}", BrowserSessionPool.summary());
+        log.info("Console proxy: {}", ConsoleProxy.summary());
+        try {
+            ResourceDescriptionCache.persist();
+        } catch (IOException e) {
+            log.error("Unable to persist resource description cache: {}", e.getMessage(), e);
+        }
+        Path file = statisticsFile("propagation-statistics", "csv");
+        try {
+            PropagationStatistics.export(file);
+        } catch (IOException e) {
+            log.error("Unable to export propagation statistics to {}: {}", file, e.getMessage(), e);
+        }
+        log.info("Slowest tests: {}", TestTimings.summary(TOP_TESTS));
+        Path csv = statisticsFile("test-timings", "csv");
+        Path json = statisticsFile("test-timings", "json");
+        try {
+            TestTimings.exportCsv(csv);
+            TestTimings.exportJson(json);
+        } catch (IOException e) {
+            log.error("Unable to export test timings to {}: {}", statisticsDir(), e.getMessage(), e);
+        }
+    }
+
+    static Path statisticsDir() {
+        return Paths.get(ConfigUtils.get("suite.statistics.dir", "target"));
+    }
+
+    /** Returns the file in the statistics directory, including the shard number if sharding is enabled. */
+    static Path statisticsFile(String name, String extension) {
+        String shard = Sharding.isEnabled() ? "-" + Sharding.shard() : "";
+        return statisticsDir().resolve(name + shard + "." + extension);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.creaper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.jboss.dmr.Property;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+
+import static org.jboss.hal.dmr.ModelDescriptionConstants.SUBSYSTEM;
+
+/**
+ * Polling strategy using an exponential backoff with jitter. The strategy keeps a history of how long changes took to
+ * be propagated for similar addresses (same subsystem and resource types) and uses it to adapt the first delay.
+ */
+public class BackoffPollingStrategy implements PollingStrategy {
+
+    private static final long DEFAULT_INITIAL_DELAY = 10;
+    private static final long DEFAULT_MAX_DELAY = 500;
+    private static final double DEFAULT_FACTOR = 2.0;
+    private static final double DEFAULT_JITTER = 0.2;
+
+    private final long initialDelay;
+    private final long maxDelay;
+    private final double factor;
+    private final double jitter;
+    private final Map<String, Long> history;
+
+    public BackoffPollingStrategy() {
+        this(DEFAULT_INITIAL_DELAY, DEFAULT_MAX_DELAY, DEFAULT_FACTOR, DEFAULT_JITTER);
+    }
+
+    /**
+     * @param initialDelay the delay in ms after the first probe if there's no history for the address
+     * @param maxDelay     the upper bound of the delay in ms
+     * @param factor       the factor the delay is multiplied with after each probe
+     * @param jitter       the relative amount of random jitter (0.2 means +/- 20%)
+     */
+    public BackoffPollingStrategy(long initialDelay, long maxDelay, double factor, double jitter) {
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.factor = factor;
+        this.jitter = jitter;
+        this.history = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public long delay(Address address, int attempt) {
+        Long propagation = history.get(template(address));
+        long base = propagation != null ? Math.max(initialDelay, propagation / 2) : initialDelay;
+        double delay = Math.min(maxDelay, base * Math.pow(factor, attempt - 1));
+        if (jitter > 0) {
+            delay = delay * (1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter));
+        }
+        return Math.max(1, Math.min(maxDelay, Math.round(delay)));
+    }
+
+    /** Updates the history using an exponentially weighted moving average. */
+    @Override
+    public void propagated(Address address, long millis) {
+        history.merge(template(address), millis, (previous, current) -> (3 * previous + current) / 4);
+    }
+
+    /** Returns the average propagation time in ms for similar addresses or -1 if there's no history yet. */
+    public long averagePropagation(Address address) {
+        return history.getOrDefault(template(address), -1L);
+    }
+
+    /** Reduces the address to the subsystem and resource types, e.g. {@code subsystem=undertow/server=*}. */
+    private String template(Address address) {
+        StringBuilder builder = new StringBuilder();
+        for (Property segment : address.toModelNode().asPropertyList()) {
+            builder.append('/').append(segment.getName()).append('=')
+                    .append(SUBSYSTEM.equals(segment.getName()) ? segment.getValue().asString() : "*");
+        }
+        return builder.toString();
+    }
+}
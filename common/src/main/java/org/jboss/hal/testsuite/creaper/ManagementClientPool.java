@@ -0,0 +1,301 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.creaper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.online.ModelNodeResult;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+import org.wildfly.extras.creaper.core.online.operations.Operations;
+
+/**
+ * Pool of {@link OnlineManagementClient}s which can be shared between test classes and threads.
+ *
+ * <p>Clients are either bound to the current thread ({@link #forCurrentThread()}) or leased from the pool ({@link
+ * #lease()}). Both kinds of clients are owned by the pool: Don't close them! Clients which have been idle for a while
+ * are checked before they are handed out and reconnected if necessary (e.g. after a server reload). Use {@link
+ * #reconnectAll()} to reconnect all clients explicitly. All clients are closed when the JVM shuts down.</p>
+ *
+ * <p>The maximum number of leased clients per pool is configured by the property {@code management.client.pool.size}
+ * (defaults to 4).</p>
+ */
+public final class ManagementClientPool {
+
+    private static final Logger log = LoggerFactory.getLogger(ManagementClientPool.class);
+    private static final int POOL_SIZE = Integer.parseInt(ConfigUtils.get("management.client.pool.size", "4"));
+    private static final long HEALTH_CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+    private static final int RECONNECT_TIMEOUT = 60;
+    private static final Map<String, ManagementClientPool> pools = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> pools.values().forEach(ManagementClientPool::close),
+                "management-client-pool-shutdown"));
+    }
+
+    /** Returns the pool for clients created by {@link ManagementClientProvider#createOnlineManagementClient()}. */
+    public static ManagementClientPool defaultPool() {
+        return pool("default", ManagementClientProvider::createOnlineManagementClient);
+    }
+
+    /** Returns the pool for clients created by {@link ManagementClientProvider#withProfile(String)}. */
+    public static ManagementClientPool withProfile(String profile) {
+        return pool("profile=" + profile, () -> ManagementClientProvider.withProfile(profile));
+    }
+
+    /** Returns the pool for clients created by {@link ManagementClientProvider#withoutDefaultHost()}. */
+    public static ManagementClientPool withoutDefaultHost() {
+        return pool("without-default-host", ManagementClientProvider::withoutDefaultHost);
+    }
+
+    /** Returns all pools created so far. */
+    public static Map<String, ManagementClientPool> pools() {
+        return pools;
+    }
+
+    /**
+     * Reconnects the clients of all pools, e.g. after a server reload or restart. Invalidates the {@link
+     * ResourceDescriptionCache} as well.
+     */
+    public static void reconnectAllPools() {
+        pools.values().forEach(ManagementClientPool::reconnectAll);
+        ResourceDescriptionCache.invalidate();
+    }
+
+    private static ManagementClientPool pool(String name, Supplier<OnlineManagementClient> factory) {
+        return pools.computeIfAbsent(name, n -> new ManagementClientPool(n, factory, POOL_SIZE));
+    }
+
+
+    private final String name;
+    private final Supplier<OnlineManagementClient> factory;
+    private final Semaphore permits;
+    private final BlockingDeque<PooledClient> idle;
+    private final Set<PooledClient> all;
+    private final ThreadLocal<PooledClient> perThread;
+    private final AtomicInteger openConnections;
+    private final AtomicLong leases;
+    private final AtomicLong leaseWaitNanos;
+    private final AtomicLong maxLeaseWaitNanos;
+
+    private ManagementClientPool(String name, Supplier<OnlineManagementClient> factory, int size) {
+        this.name = name;
+        this.factory = factory;
+        this.permits = new Semaphore(size, true);
+        this.idle = new LinkedBlockingDeque<>();
+        this.all = ConcurrentHashMap.newKeySet();
+        this.perThread = new ThreadLocal<>();
+        this.openConnections = new AtomicInteger();
+        this.leases = new AtomicLong();
+        this.leaseWaitNanos = new AtomicLong();
+        this.maxLeaseWaitNanos = new AtomicLong();
+    }
+
+
+    // ------------------------------------------------------ clients
+
+    /** Returns the client bound to the current thread. Don't close the client! */
+    public OnlineManagementClient forCurrentThread() {
+        PooledClient pooled = perThread.get();
+        if (pooled == null) {
+            pooled = create();
+            perThread.set(pooled);
+        }
+        return checked(pooled).client;
+    }
+
+    /**
+     * Leases a client from the pool. Blocks until a client is available. Use try-with-resources to return the client
+     * to the pool:
+     * <pre>
+     * try (ManagementClientPool.Lease lease = ManagementClientPool.defaultPool().lease()) {
+     *     Operations operations = new Operations(lease.client());
+     *     ...
+     * }
+     * </pre>
+     */
+    public Lease lease() throws InterruptedException {
+        long start = System.nanoTime();
+        permits.acquire();
+        long waited = System.nanoTime() - start;
+        leases.incrementAndGet();
+        leaseWaitNanos.addAndGet(waited);
+        maxLeaseWaitNanos.accumulateAndGet(waited, Math::max);
+
+        PooledClient pooled = idle.pollFirst();
+        try {
+            return new Lease(checked(pooled != null ? pooled : create()));
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** Reconnects all clients of this pool, e.g. after a server reload or restart. */
+    public void reconnectAll() {
+        for (PooledClient pooled : all) {
+            reconnect(pooled);
+        }
+    }
+
+
+    // ------------------------------------------------------ gauges
+
+    public String getName() {
+        return name;
+    }
+
+    /** Returns the number of clients currently opened by this pool. */
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    /** Returns the number of leases so far. */
+    public long getLeases() {
+        return leases.get();
+    }
+
+    /** Returns the accumulated time in ms spent waiting for a lease. */
+    public long getLeaseWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(leaseWaitNanos.get());
+    }
+
+    /** Returns the longest time in ms spent waiting for a lease. */
+    public long getMaxLeaseWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLeaseWaitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d open connections, %d leases, lease wait total %d ms, max %d ms", name,
+                getOpenConnections(), getLeases(), getLeaseWaitMillis(), getMaxLeaseWaitMillis());
+    }
+
+
+    // ------------------------------------------------------ internals
+
+    private PooledClient create() {
+        PooledClient pooled = new PooledClient(factory.get());
+        all.add(pooled);
+        openConnections.incrementAndGet();
+        return pooled;
+    }
+
+    /** Checks the client if it has been idle for too long and reconnects it if necessary. */
+    private PooledClient checked(PooledClient pooled) {
+        long now = System.currentTimeMillis();
+        if (now - pooled.lastUsed > HEALTH_CHECK_INTERVAL && !healthy(pooled)) {
+            reconnect(pooled);
+        }
+        pooled.lastUsed = now;
+        return pooled;
+    }
+
+    private boolean healthy(PooledClient pooled) {
+        try {
+            ModelNodeResult result = new Operations(pooled.client).readAttribute(Address.root(), "release-version");
+            return result.isSuccess();
+        } catch (IOException e) {
+            log.debug("Health check of management client in pool {} failed: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    private void reconnect(PooledClient pooled) {
+        try {
+            pooled.client.reconnect(RECONNECT_TIMEOUT);
+            pooled.lastUsed = System.currentTimeMillis();
+        } catch (TimeoutException e) {
+            log.error("Unable to reconnect management client in pool {}: {}", name, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void release(PooledClient pooled) {
+        idle.offerFirst(pooled);
+        permits.release();
+    }
+
+    private void close() {
+        List<PooledClient> clients = new ArrayList<>(all);
+        all.clear();
+        idle.clear();
+        for (PooledClient pooled : clients) {
+            try {
+                pooled.client.close();
+                openConnections.decrementAndGet();
+            } catch (IOException e) {
+                log.warn("Unable to close management client in pool {}: {}", name, e.getMessage());
+            }
+        }
+    }
+
+
+    /** A client leased from the pool. Closing the lease returns the client to the pool. */
+    public final class Lease implements AutoCloseable {
+
+        private final PooledClient pooled;
+        private boolean closed;
+
+        private Lease(PooledClient pooled) {
+            this.pooled = pooled;
+        }
+
+        public OnlineManagementClient client() {
+            if (closed) {
+                throw new IllegalStateException("Lease has already been returned to pool " + name);
+            }
+            return pooled.client;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(pooled);
+            }
+        }
+    }
+
+
+    private static class PooledClient {
+
+        private final OnlineManagementClient client;
+        private volatile long lastUsed;
+
+        PooledClient(OnlineManagementClient client) {
+            this.client = client;
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+}
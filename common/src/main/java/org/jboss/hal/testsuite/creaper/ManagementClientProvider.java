@@ -15,12 +15,19 @@
  */
 package org.jboss.hal.testsuite.creaper;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
 import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.TestTimings;
 import org.wildfly.extras.creaper.core.ManagementClient;
 import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
 import org.wildfly.extras.creaper.core.online.OnlineOptions;
 
-/** Provider for Creaper's OnlineManagementClient */
+/**
+ * Provider for Creaper's OnlineManagementClient. Use {@link ManagementClientPool} to get clients which are shared
+ * between test classes and threads.
+ */
 public class ManagementClientProvider {
 
     private static final String AS_MANAGEMENT_ADDRESS = "as.managementAddress";
@@ -36,11 +43,11 @@ public class ManagementClientProvider {
      * @return Initialized domain OnlineManagementClient for specified profile, don't forget to close it
      */
     public static OnlineManagementClient withProfile(String profile) {
-        return ManagementClient.onlineLazy(OnlineOptions.domain()
+        return timed(ManagementClient.onlineLazy(OnlineOptions.domain()
                 .forHost(ConfigUtils.getDefaultHost()).forProfile(profile).build()
                 .hostAndPort(System.getProperty(AS_MANAGEMENT_ADDRESS, LOCALHOST),
                         Integer.parseInt(System.getProperty(AS_MANAGEMENT_PORT, AS_MANAGEMENT_PORT_NUMBER)))
-                .build());
+                .build()));
     }
 
     /**
@@ -53,10 +60,10 @@ public class ManagementClientProvider {
      */
     public static OnlineManagementClient withoutDefaultHost() {
         String profile = ConfigUtils.getDefaultProfile();
-        return ManagementClient.onlineLazy(OnlineOptions.domain().forProfile(profile).build()
+        return timed(ManagementClient.onlineLazy(OnlineOptions.domain().forProfile(profile).build()
                 .hostAndPort(System.getProperty(AS_MANAGEMENT_ADDRESS, LOCALHOST),
                         Integer.parseInt(System.getProperty(AS_MANAGEMENT_PORT, AS_MANAGEMENT_PORT_NUMBER)))
-                .build());
+                .build()));
     }
 
     /**
@@ -82,7 +89,7 @@ public class ManagementClientProvider {
                     .build());
         }
 
-        return managementClient;
+        return timed(managementClient);
     }
 
     /**
@@ -91,8 +98,35 @@ public class ManagementClientProvider {
      * @return Initialized standalone OnlineManagementClient for specified port number, don't forget to close it
      */
     public static OnlineManagementClient standaloneWithPort(int port) {
-        return ManagementClient.onlineLazy(OnlineOptions.standalone().
-                hostAndPort(System.getProperty(AS_MANAGEMENT_ADDRESS, LOCALHOST), port).build());
+        return timed(ManagementClient.onlineLazy(OnlineOptions.standalone().
+                hostAndPort(System.getProperty(AS_MANAGEMENT_ADDRESS, LOCALHOST), port).build()));
+    }
+
+    /**
+     * Wraps the client, so that the time spent in management operations is recorded by {@link TestTimings}. The
+     * methods of {@code Object} are handled by the proxy itself and are not recorded.
+     */
+    private static OnlineManagementClient timed(OnlineManagementClient client) {
+        return (OnlineManagementClient) Proxy.newProxyInstance(OnlineManagementClient.class.getClassLoader(),
+                new Class<?>[]{OnlineManagementClient.class}, (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "toString":
+                                return "timed " + client;
+                            default:
+                                return method.invoke(client, args);
+                        }
+                    }
+                    try (TestTimings.Span ignored = TestTimings.start(TestTimings.Category.MANAGEMENT)) {
+                        return method.invoke(client, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
     }
 
     private ManagementClientProvider() {
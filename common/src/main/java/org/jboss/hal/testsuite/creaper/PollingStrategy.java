@@ -0,0 +1,42 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.creaper;
+
+import org.wildfly.extras.creaper.core.online.operations.Address;
+
+/**
+ * Decides how long {@link ResourceVerifier} waits between two probes of a {@link
+ * ResourceVerifier.PropagationChecker}. The first probe is always done immediately.
+ */
+public interface PollingStrategy {
+
+    /** Returns a strategy which always waits the specified amount of time. */
+    static PollingStrategy fixed(long delay) {
+        return (address, attempt) -> delay;
+    }
+
+    /**
+     * Returns the delay in milliseconds before the next probe.
+     *
+     * @param address the address of the resource which is verified
+     * @param attempt the number of probes done so far (starts with 1)
+     */
+    long delay(Address address, int attempt);
+
+    /** Called once a change has been propagated to the model after the specified time in milliseconds. */
+    default void propagated(Address address, long millis) {
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.creaper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the probes and the time it takes until changes are propagated to the model. The numbers are collected per
+ * test. Use {@link #startTest(String)} to switch to another test and {@link #export(Path)} to write the numbers as
+ * CSV.
+ */
+public final class PropagationStatistics {
+
+    private static final String NO_TEST = "<no test>";
+    private static final Map<String, Counter> counters = Collections.synchronizedMap(new LinkedHashMap<>());
+    private static volatile String currentTest = NO_TEST;
+
+    /** Subsequent verifications are counted for the specified test. */
+    public static void startTest(String test) {
+        currentTest = test != null ? test : NO_TEST;
+    }
+
+    static void record(int probes, long millis, boolean propagated) {
+        counters.computeIfAbsent(currentTest, test -> new Counter()).add(probes, millis, propagated);
+    }
+
+    /** Returns a copy of the counters collected so far per test. */
+    public static Map<String, Counter> counters() {
+        synchronized (counters) {
+            return new LinkedHashMap<>(counters);
+        }
+    }
+
+    /** Returns the sum of all counters. */
+    public static Counter total() {
+        Counter total = new Counter();
+        for (Counter counter : counters().values()) {
+            total.add(counter);
+        }
+        return total;
+    }
+
+    /** Writes the counters as CSV to the specified file. */
+    public static void export(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("test,verifications,probes,propagation-ms,timeouts\n");
+            for (Map.Entry<String, Counter> entry : counters().entrySet()) {
+                Counter c = entry.getValue();
+                writer.write(String.format("%s,%d,%d,%d,%d%n", entry.getKey(), c.getVerifications(), c.getProbes(),
+                        c.getPropagationMillis(), c.getTimeouts()));
+            }
+        }
+    }
+
+    /** Clears all counters. */
+    public static void reset() {
+        counters.clear();
+    }
+
+    private PropagationStatistics() {
+    }
+
+
+    public static class Counter {
+
+        private long verifications;
+        private long probes;
+        private long propagationMillis;
+        private long timeouts;
+
+        synchronized void add(int probes, long millis, boolean propagated) {
+            this.verifications++;
+            this.probes += probes;
+            this.propagationMillis += millis;
+            if (!propagated) {
+                this.timeouts++;
+            }
+        }
+
+        synchronized void add(Counter other) {
+            this.verifications += other.getVerifications();
+            this.probes += other.getProbes();
+            this.propagationMillis += other.getPropagationMillis();
+            this.timeouts += other.getTimeouts();
+        }
+
+        public synchronized long getVerifications() {
+            return verifications;
+        }
+
+        public synchronized long getProbes() {
+            return probes;
+        }
+
+        /** Returns the accumulated time in ms until the changes were propagated (or the verifications timed out). */
+        public synchronized long getPropagationMillis() {
+            return propagationMillis;
+        }
+
+        /** Returns the number of verifications which timed out before the change was propagated. */
+        public synchronized long getTimeouts() {
+            return timeouts;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("%d verifications, %d probes (%.1f per verification), %d ms until propagated, "
+                            + "%d timeouts", verifications, probes,
+                    verifications == 0 ? 0.0 : (double) probes / verifications, propagationMillis, timeouts);
+        }
+    }
+}
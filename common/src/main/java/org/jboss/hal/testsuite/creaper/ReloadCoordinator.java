@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.creaper;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.hal.testsuite.util.TestTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+import org.wildfly.extras.creaper.core.online.operations.admin.Administration;
+
+/**
+ * Coalesces server reloads.
+ *
+ * <p>Instead of reloading the server in {@code @BeforeClass} or {@code @AfterClass}, test classes call {@link
+ * #reloadLater()}. The pending reload is executed before the next test method runs (see {@code ReloadSynchronizer}),
+ * so the reload required by the tear down of one class and the set up of the next class is done only once. Reloads
+ * are skipped if the server does not require a reload anymore.</p>
+ *
+ * <p>After a reload the pooled clients are reconnected and the browser is asked to do a full {@linkplain
+ * #consumeBrowserRefresh() refresh}.</p>
+ */
+public final class ReloadCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ReloadCoordinator.class);
+    private static final int TIMEOUT = Integer.parseInt(ConfigUtils.get("reload.timeout", "120"));
+
+    private static final AtomicLong requests = new AtomicLong();
+    private static final AtomicLong reloads = new AtomicLong();
+    private static boolean pending;
+    private static volatile boolean browserRefresh;
+
+    /** Requests a reload which will be executed before the next test method. */
+    public static synchronized void reloadLater() {
+        requests.incrementAndGet();
+        pending = true;
+    }
+
+    /** Executes the pending reload (if any) now. Use it if the running state is needed before the next test. */
+    public static void reloadNow() throws IOException, InterruptedException, TimeoutException {
+        if (!isPending()) {
+            return;
+        }
+        reloadPending(ManagementClientPool.defaultPool().forCurrentThread());
+    }
+
+    /**
+     * Executes the pending reload (if any) and if the server still requires a reload.
+     *
+     * @return whether the server has been reloaded
+     */
+    public static synchronized boolean reloadPending(OnlineManagementClient client)
+            throws IOException, InterruptedException, TimeoutException {
+        if (!pending) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        Administration administration = new Administration(client, TIMEOUT);
+        boolean reloaded;
+        try (TestTimings.Span ignored = TestTimings.start(TestTimings.Category.RELOAD)) {
+            reloaded = administration.reloadIfRequired();
+        } finally {
+            pending = false;
+        }
+        if (reloaded) {
+            reloads.incrementAndGet();
+            browserRefresh = true;
+            ManagementClientPool.reconnectAllPools();
+            log.info("Reloaded server in {} ms ({} reload requests so far, {} reloads)",
+                    System.currentTimeMillis() - start, requests.get(), reloads.get());
+        }
+        return reloaded;
+    }
+
+    /**
+     * Returns whether the browser should do a full refresh because the server has been reloaded since the last call.
+     * Resets the flag.
+     */
+    public static boolean consumeBrowserRefresh() {
+        boolean refresh = browserRefresh;
+        browserRefresh = false;
+        return refresh;
+    }
+
+    public static synchronized boolean isPending() {
+        return pending;
+    }
+
+
+    // ------------------------------------------------------ statistics
+
+    public static long requests() {
+        return requests.get();
+    }
+
+    public static long reloads() {
+        return reloads.get();
+    }
+
+    public static String summary() {
+        return String.format("%d reload requests coalesced into %d reloads", requests.get(), reloads.get());
+    }
+
+    private ReloadCoordinator() {
+    }
+}
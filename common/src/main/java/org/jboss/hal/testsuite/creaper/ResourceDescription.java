@@ -23,14 +23,11 @@ import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.Property;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wildfly.extras.creaper.core.online.ModelNodeResult;
 import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
 import org.wildfly.extras.creaper.core.online.operations.Address;
-import org.wildfly.extras.creaper.core.online.operations.Operations;
 
 import static org.jboss.hal.dmr.ModelDescriptionConstants.ATTRIBUTES;
 import static org.jboss.hal.dmr.ModelDescriptionConstants.DEFAULT;
-import static org.jboss.hal.dmr.ModelDescriptionConstants.RESULT;
 
 /** Reads the resource description for a given address and offers methods to return information from it. */
 class ResourceDescription {
@@ -40,13 +37,11 @@ class ResourceDescription {
     private Address address;
     private ModelNode resourceDescription;
 
-    /** Reads the resource descriptions of the specified resource. */
+    /** Reads the resource descriptions of the specified resource using the {@link ResourceDescriptionCache}. */
     ResourceDescription(Address address, OnlineManagementClient client) {
         this.address = address;
-        Operations operations = new Operations(client);
         try {
-            ModelNodeResult result = operations.invoke("read-resource-description", address);
-            this.resourceDescription = result.get(RESULT);
+            this.resourceDescription = ResourceDescriptionCache.get(address, client);
         } catch (IOException e) {
             log.error("Cannot read resource description for {}: {}", address, e.getMessage(), e);
             this.resourceDescription = new ModelNode();
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.creaper;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.online.ModelNodeResult;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+import org.wildfly.extras.creaper.core.online.operations.Operations;
+import org.wildfly.extras.creaper.core.online.operations.Values;
+
+import static org.jboss.hal.dmr.ModelDescriptionConstants.ADDRESS;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.ATTRIBUTES_ONLY;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.MANAGEMENT_MAJOR_VERSION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.MANAGEMENT_MICRO_VERSION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.MANAGEMENT_MINOR_VERSION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.PRODUCT_VERSION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.READ_RESOURCE_DESCRIPTION_OPERATION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.RELEASE_VERSION;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.RESULT;
+import static org.jboss.hal.dmr.ModelDescriptionConstants.SUBSYSTEM;
+
+/**
+ * Process-wide cache for resource descriptions.
+ *
+ * <p>The descriptions are cached by address template: all resource names except the subsystem name are replaced by
+ * {@code *}. On a cache miss the description of the template is read, which returns the descriptions of all
+ * registrations matching the template (the generic one and overrides like {@code service=timer-service}). A lookup
+ * returns the most specific registration matching the address.</p>
+ *
+ * <p>The cache is bounded (LRU, {@code resource.description.cache.size} templates). It's invalidated on server reload
+ * ({@link ManagementClientPool#reconnectAllPools()}) and when the server version changes. If {@code
+ * resource.description.cache.file} is set, the cache is loaded from and {@linkplain #persist() persisted} to this
+ * file.</p>
+ */
+public final class ResourceDescriptionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceDescriptionCache.class);
+    private static final String WILDCARD = "*";
+    private static final String FINGERPRINT = "fingerprint";
+    private static final String TEMPLATES = "templates";
+    private static final int SIZE = Integer.parseInt(ConfigUtils.get("resource.description.cache.size", "256"));
+    private static final long VALIDATION_INTERVAL = Long.parseLong(
+            ConfigUtils.get("resource.description.cache.validation", "30000"));
+    private static final String FILE = ConfigUtils.get("resource.description.cache.file", "");
+
+    /**
+     * Maps the template to the list of registrations. Each registration is a node {@code {address => [...], result =>
+     * description}} like the ones returned by a wildcard {@code read-resource-description}.
+     */
+    private static final Map<String, List<ModelNode>> cache = new LinkedHashMap<String, List<ModelNode>>(16, 0.75f,
+            true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<ModelNode>> eldest) {
+            boolean evict = size() > SIZE;
+            if (evict) {
+                evictions.incrementAndGet();
+            }
+            return evict;
+        }
+    };
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+    private static String fingerprint;
+    private static long validated;
+    private static boolean loaded;
+
+    /**
+     * Returns the resource description for the specified address. The returned node is a copy and can be modified.
+     * If no cached registration matches the address, the description of the address is read without caching.
+     *
+     * @throws IOException if the description cannot be read
+     */
+    static ModelNode get(Address address, OnlineManagementClient client) throws IOException {
+        Operations operations = new Operations(client);
+        String template = template(address);
+        List<ModelNode> registrations;
+        synchronized (cache) {
+            validate(operations);
+            registrations = cache.get(template);
+        }
+        if (registrations != null) {
+            ModelNode description = mostSpecific(address, registrations);
+            if (description != null) {
+                hits.incrementAndGet();
+                return description.clone();
+            }
+        }
+        misses.incrementAndGet();
+        registrations = read(operations, address);
+        synchronized (cache) {
+            cache.put(template, registrations);
+        }
+        ModelNode description = mostSpecific(address, registrations);
+        if (description != null) {
+            return description.clone();
+        }
+        log.debug("No registration of {} matches {}, read its description without caching", template, address);
+        return readConcrete(operations, address);
+    }
+
+    /** Removes all descriptions, e.g. after a server reload. */
+    public static void invalidate() {
+        synchronized (cache) {
+            cache.clear();
+            fingerprint = null;
+            validated = 0;
+        }
+    }
+
+    /** Writes the cache to the file specified in {@code resource.description.cache.file} (if any). */
+    public static void persist() throws IOException {
+        if (FILE.isEmpty()) {
+            return;
+        }
+        ModelNode node = new ModelNode();
+        synchronized (cache) {
+            if (fingerprint == null) {
+                return;
+            }
+            node.get(FINGERPRINT).set(fingerprint);
+            ModelNode templates = node.get(TEMPLATES).setEmptyObject();
+            cache.forEach((template, registrations) -> {
+                ModelNode list = templates.get(template).setEmptyList();
+                registrations.forEach(list::add);
+            });
+        }
+        Path path = Paths.get(FILE);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (OutputStream out = new DataOutputStream(Files.newOutputStream(path))) {
+            node.writeExternal(out);
+        }
+    }
+
+
+    // ------------------------------------------------------ statistics
+
+    public static long hits() {
+        return hits.get();
+    }
+
+    public static long misses() {
+        return misses.get();
+    }
+
+    public static long evictions() {
+        return evictions.get();
+    }
+
+    public static String summary() {
+        long h = hits.get();
+        long m = misses.get();
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+        return String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions, %d templates", h, m,
+                h + m == 0 ? 0.0 : 100.0 * h / (h + m), evictions.get(), size);
+    }
+
+
+    // ------------------------------------------------------ internals
+
+    /** Checks the server version at most every {@code VALIDATION_INTERVAL} ms and clears the cache if it changed. */
+    private static void validate(Operations operations) throws IOException {
+        long now = System.currentTimeMillis();
+        if (fingerprint != null && now - validated < VALIDATION_INTERVAL) {
+            return;
+        }
+        String current = fingerprint(operations);
+        if (!loaded) {
+            loaded = true;
+            load(current);
+        }
+        if (fingerprint != null && !fingerprint.equals(current)) {
+            log.info("Server version changed from {} to {}, clearing resource description cache", fingerprint,
+                    current);
+            cache.clear();
+        }
+        fingerprint = current;
+        validated = now;
+    }
+
+    private static String fingerprint(Operations operations) throws IOException {
+        ModelNode root = operations.invoke(READ_RESOURCE_OPERATION, Address.root(), Values.of(ATTRIBUTES_ONLY, true))
+                .get(RESULT);
+        return String.join("/", root.get(RELEASE_VERSION).asString(), root.get(PRODUCT_VERSION).asString(),
+                root.get(MANAGEMENT_MAJOR_VERSION).asString() + "." + root.get(MANAGEMENT_MINOR_VERSION).asString()
+                        + "." + root.get(MANAGEMENT_MICRO_VERSION).asString());
+    }
+
+    private static void load(String currentFingerprint) {
+        if (FILE.isEmpty()) {
+            return;
+        }
+        ModelNode node = new ModelNode();
+        try (InputStream in = new DataInputStream(Files.newInputStream(Paths.get(FILE)))) {
+            node.readExternal(in);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            log.warn("Unable to load resource description cache from {}: {}", FILE, e.getMessage());
+            return;
+        }
+        if (!currentFingerprint.equals(node.get(FINGERPRINT).asString())) {
+            log.info("Ignore resource description cache from {}: server version changed", FILE);
+            return;
+        }
+        for (Property template : node.get(TEMPLATES).asPropertyList()) {
+            List<ModelNode> registrations = template.getValue().asList();
+            for (ModelNode registration : registrations) {
+                if (registration.getType() != ModelType.OBJECT || !registration.hasDefined(ADDRESS)) {
+                    log.info("Ignore resource description cache from {}: unknown format", FILE);
+                    cache.clear();
+                    return;
+                }
+            }
+            cache.put(template.getName(), registrations);
+        }
+        log.info("Loaded {} resource description templates from {}", cache.size(), FILE);
+    }
+
+    /** Reads the descriptions of all registrations matching the template. */
+    private static List<ModelNode> read(Operations operations, Address address) throws IOException {
+        List<ModelNode> registrations = new ArrayList<>();
+        Address wildcardAddress = wildcardAddress(address);
+        ModelNodeResult result = operations.invoke(READ_RESOURCE_DESCRIPTION_OPERATION, wildcardAddress);
+        if (result.isSuccess() && result.value().getType() == ModelType.LIST) {
+            for (ModelNode registration : result.value().asList()) {
+                if (registration.hasDefined(ADDRESS) && registration.hasDefined(RESULT)) {
+                    registrations.add(registration(registration.get(ADDRESS), registration.get(RESULT)));
+                }
+            }
+        } else if (result.isSuccess()) {
+            registrations.add(registration(wildcardAddress.toModelNode(), result.value()));
+        }
+        if (registrations.isEmpty()) {
+            // fall back to the concrete address
+            registrations.add(registration(address.toModelNode(), readConcrete(operations, address)));
+        }
+        return registrations;
+    }
+
+    /** Reads the description of the concrete address. */
+    private static ModelNode readConcrete(Operations operations, Address address) throws IOException {
+        ModelNodeResult result = operations.invoke(READ_RESOURCE_DESCRIPTION_OPERATION, address);
+        if (!result.isSuccess()) {
+            throw new IOException("Unable to read resource description of " + address + ": "
+                    + result.getFailureDescription());
+        }
+        return result.value();
+    }
+
+    private static ModelNode registration(ModelNode address, ModelNode description) {
+        ModelNode registration = new ModelNode();
+        registration.get(ADDRESS).set(address);
+        registration.get(RESULT).set(description);
+        return registration;
+    }
+
+    /**
+     * Returns the description of the registration which matches the most segments of the address exactly. The
+     * segments are compared one by one, so resource names containing {@code /} or {@code =} (e.g. {@code
+     * location=/}) are matched as well.
+     */
+    private static ModelNode mostSpecific(Address address, List<ModelNode> registrations) {
+        List<Property> segments = address.toModelNode().asPropertyList();
+        ModelNode best = null;
+        int bestScore = -1;
+        for (ModelNode registration : registrations) {
+            List<Property> parts = registration.get(ADDRESS).isDefined()
+                    ? registration.get(ADDRESS).asPropertyList() : new ArrayList<>();
+            if (parts.size() != segments.size()) {
+                continue;
+            }
+            int score = 0;
+            boolean matches = true;
+            for (int i = 0; i < parts.size() && matches; i++) {
+                Property part = parts.get(i);
+                Property segment = segments.get(i);
+                String value = part.getValue().asString();
+                if (!part.getName().equals(segment.getName())) {
+                    matches = false;
+                } else if (value.equals(segment.getValue().asString())) {
+                    score++;
+                } else if (!WILDCARD.equals(value)) {
+                    matches = false;
+                }
+            }
+            if (matches && score > bestScore) {
+                best = registration.get(RESULT);
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static Address wildcardAddress(Address address) {
+        Address wildcardAddress = Address.root();
+        for (Property segment : address.toModelNode().asPropertyList()) {
+            wildcardAddress = wildcardAddress.and(segment.getName(),
+                    SUBSYSTEM.equals(segment.getName()) ? segment.getValue().asString() : WILDCARD);
+        }
+        return wildcardAddress;
+    }
+
+    private static String template(Address address) {
+        return asString(wildcardAddress(address).toModelNode());
+    }
+
+    /** Turns an address model node into a string like {@code /subsystem=undertow/server=*}. */
+    private static String asString(ModelNode address) {
+        StringBuilder builder = new StringBuilder();
+        if (address.isDefined()) {
+            for (Property segment : address.asPropertyList()) {
+                builder.append('/').append(segment.getName()).append('=').append(segment.getValue().asString());
+            }
+        }
+        return builder.length() == 0 ? "/" : builder.toString();
+    }
+
+    private ResourceDescriptionCache() {
+    }
+}
@@ -16,7 +16,9 @@
 package org.jboss.hal.testsuite.creaper;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 import com.google.common.base.Splitter;
 import org.jboss.dmr.ModelNode;
@@ -25,12 +27,14 @@ import org.jboss.dmr.Property;
 import org.jboss.hal.testsuite.dmr.ModelNodeUtils;
 import org.jboss.hal.testsuite.util.ConfigUtils;
 import org.jboss.hal.testsuite.util.Library;
+import org.jboss.hal.testsuite.util.TestTimings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wildfly.extras.creaper.core.online.ModelNodeResult;
 import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
 import org.wildfly.extras.creaper.core.online.operations.Address;
 import org.wildfly.extras.creaper.core.online.operations.Operations;
+import org.wildfly.extras.creaper.core.online.operations.Values;
 
 import static java.util.stream.Collectors.toList;
 import static org.jboss.hal.dmr.ModelDescriptionConstants.*;
@@ -48,12 +52,19 @@ public class ResourceVerifier {
     private static final String END_STR = "' !";
     private static final Logger log = LoggerFactory.getLogger(ResourceVerifier.class);
     private static final int DEFAULT_TIMEOUT = Integer.parseInt(ConfigUtils.get("propagate.to.model.timeout", "500"));
+    private static final PollingStrategy DEFAULT_POLLING =
+            "fixed".equals(ConfigUtils.get("propagate.polling", "backoff"))
+            ? PollingStrategy.fixed(100)
+            : new BackoffPollingStrategy();
 
     private Address address;
     private OnlineManagementClient client;
     private int timeout;
     private Operations ops;
+    private PollingStrategy pollingStrategy;
     private ResourceDescription resourceDescription;
+    private boolean deferred;
+    private final List<Expectation> expectations = new ArrayList<>();
 
     public ResourceVerifier(Address address, OnlineManagementClient client) {
         this(address, client, DEFAULT_TIMEOUT);
@@ -67,6 +78,64 @@ public class ResourceVerifier {
         this.client = client;
         this.timeout = timeout;
         this.ops = new Operations(client);
+        this.pollingStrategy = DEFAULT_POLLING;
+    }
+
+    /**
+     * Uses the specified strategy to wait between the probes. Defaults to {@link BackoffPollingStrategy} unless the
+     * property {@code propagate.polling} is set to {@code fixed}.
+     */
+    public ResourceVerifier withPollingStrategy(PollingStrategy pollingStrategy) {
+        this.pollingStrategy = pollingStrategy;
+        return this;
+    }
+
+
+    // ------------------------------------------------------ deferred verification
+
+    /**
+     * Switches to the deferred mode: {@code verifyAttribute(...)}, {@code verifyAttributeIsUndefined(...)} and {@code
+     * verifyListAttributeContainsValue(...)} only collect the expectations until {@link #verifyDeferred()} is called.
+     * Use this mode to verify many attributes of the same resource with one {@code read-resource} per probe.
+     */
+    public ResourceVerifier deferred() {
+        this.deferred = true;
+        return this;
+    }
+
+    /**
+     * Verifies all expectations collected in the {@linkplain #deferred() deferred mode} against one snapshot of the
+     * resource per probe and reports all mismatches together. Leaves the deferred mode.
+     */
+    public ResourceVerifier verifyDeferred() throws Exception {
+        List<Expectation> pending = new ArrayList<>(expectations);
+        expectations.clear();
+        deferred = false;
+        if (pending.isEmpty()) {
+            return this;
+        }
+
+        ModelNode[] snapshot = new ModelNode[1];
+        waitFor(() -> {
+            snapshot[0] = readSnapshot();
+            return snapshot[0] != null && pending.stream().allMatch(expectation -> expectation.test(snapshot[0]));
+        });
+
+        assertTrue("Resource '" + address + "' should exist!", snapshot[0] != null);
+        List<String> mismatches = pending.stream()
+                .filter(expectation -> !expectation.test(snapshot[0]))
+                .map(expectation -> expectation.describe(snapshot[0]))
+                .collect(toList());
+        assertTrue(mismatches.size() + " of " + pending.size() + " attribute(s) different in model of '" + address
+                + "':\n" + String.join("\n", mismatches), mismatches.isEmpty());
+        return this;
+    }
+
+    /** Reads the attributes incl. defaults and runtime attributes or returns null if the resource does not exist. */
+    private ModelNode readSnapshot() throws IOException {
+        ModelNodeResult result = ops.invoke(READ_RESOURCE_OPERATION, address,
+                Values.of(INCLUDE_DEFAULTS, true).and(INCLUDE_RUNTIME, true).and(ATTRIBUTES_ONLY, true));
+        return result.isSuccess() ? result.value() : null;
     }
 
 
@@ -114,6 +183,11 @@ public class ResourceVerifier {
     /** Verifies the value of attribute in model. */
     public ResourceVerifier verifyAttribute(String attributeName, ModelNode expectedValue,
             String errorMessageSuffix) throws Exception {
+        if (deferred) {
+            expectations.add(new Expectation(attributeName, "expected " + expectedValue, errorMessageSuffix,
+                    actual -> actual.isDefined() && expectedValue.equals(actual)));
+            return this;
+        }
         boolean nested = attributeName.contains(".");
         String baseAttributeName = nested
                 ? attributeName.substring(0, attributeName.indexOf('.'))
@@ -226,6 +300,11 @@ public class ResourceVerifier {
      */
     public ResourceVerifier verifyAttributeIsUndefined(String attributeName, String errorMessagePrefix)
             throws Exception {
+        if (deferred) {
+            expectations.add(new Expectation(attributeName, "expected undefined", errorMessagePrefix,
+                    actual -> !actual.isDefined()));
+            return this;
+        }
         waitFor(() -> {
             ModelNodeResult actualResult = ops.readAttribute(address, attributeName);
             return actualResult.isSuccess() && !actualResult.hasDefined(RESULT);
@@ -255,6 +334,11 @@ public class ResourceVerifier {
      */
     public ResourceVerifier verifyListAttributeContainsValue(String attributeName, ModelNode value,
             String errorMessageSuffix) throws Exception {
+        if (deferred) {
+            expectations.add(new Expectation(attributeName, "expected list containing " + value, errorMessageSuffix,
+                    actual -> actual.isDefined() && ModelNodeUtils.isValuePresentInModelNodeList(actual, value)));
+            return this;
+        }
         waitFor(() -> {
             ModelNodeResult actualResult = ops.readAttribute(address, attributeName);
             return actualResult.isSuccess() &&
@@ -592,8 +676,13 @@ public class ResourceVerifier {
      * which are marked as nillable and don't have a default value are undefined.
      */
     public ResourceVerifier verifyReset() throws Exception {
+        boolean wasDeferred = deferred;
+        deferred();
         verifyDefaultValues();
         verifyNillable();
+        if (!wasDeferred) {
+            verifyDeferred();
+        }
         return this;
     }
 
@@ -663,10 +752,66 @@ public class ResourceVerifier {
     // ------------------------------------------------------ internals
 
     private void waitFor(PropagationChecker checker) throws Exception {
+        try (TestTimings.Span ignored = TestTimings.start(TestTimings.Category.VERIFICATION)) {
+            poll(checker);
+        }
+    }
+
+    private void poll(PropagationChecker checker) throws Exception {
         long start = System.currentTimeMillis();
-        while (!checker.finallyPropagated() && System.currentTimeMillis() <= start + timeout) {
-            log.debug("Not yet propagated therefore waiting.");
-            Library.letsSleep(100);
+        long deadline = start + timeout;
+        int probes = 1;
+        boolean propagated = checker.finallyPropagated();
+        while (!propagated && System.currentTimeMillis() < deadline) {
+            long delay = Math.min(pollingStrategy.delay(address, probes), deadline - System.currentTimeMillis());
+            log.debug("Not yet propagated therefore waiting {} ms.", delay);
+            if (delay > 0) {
+                Library.letsSleep(delay);
+            }
+            propagated = checker.finallyPropagated();
+            probes++;
+        }
+        long millis = System.currentTimeMillis() - start;
+        if (propagated) {
+            pollingStrategy.propagated(address, millis);
+        }
+        PropagationStatistics.record(probes, millis, propagated);
+    }
+
+    /** An expected state of one (possibly nested) attribute, evaluated against a snapshot of the resource. */
+    private static class Expectation {
+
+        private final String attributeName;
+        private final String expected;
+        private final String messageSuffix;
+        private final Predicate<ModelNode> predicate;
+
+        Expectation(String attributeName, String expected, String messageSuffix, Predicate<ModelNode> predicate) {
+            this.attributeName = attributeName;
+            this.expected = expected;
+            this.messageSuffix = messageSuffix;
+            this.predicate = predicate;
+        }
+
+        boolean test(ModelNode resource) {
+            return predicate.test(actual(resource));
+        }
+
+        String describe(ModelNode resource) {
+            return "  " + attributeName + ": " + expected + ", but was " + actual(resource)
+                    + (messageSuffix == null || messageSuffix.isEmpty() ? "" : " " + messageSuffix);
+        }
+
+        /** Resolves nested attributes like {@code a.b.c}. */
+        private ModelNode actual(ModelNode resource) {
+            ModelNode node = resource;
+            for (String name : Splitter.on('.').omitEmptyStrings().split(attributeName)) {
+                if (!node.hasDefined(name)) {
+                    return new ModelNode();
+                }
+                node = node.get(name);
+            }
+            return node;
         }
     }
 
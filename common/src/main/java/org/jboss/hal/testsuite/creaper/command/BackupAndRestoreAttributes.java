@@ -15,8 +15,10 @@
  */
 package org.jboss.hal.testsuite.creaper.command;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -24,9 +26,11 @@ import java.util.Set;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.Property;
 import org.jgrapht.experimental.dag.DirectedAcyclicGraph;
+import org.jgrapht.graph.DefaultEdge;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wildfly.extras.creaper.core.CommandFailedException;
+import org.wildfly.extras.creaper.core.online.ModelNodeResult;
 import org.wildfly.extras.creaper.core.online.OnlineCommand;
 import org.wildfly.extras.creaper.core.online.OnlineCommandContext;
 import org.wildfly.extras.creaper.core.online.operations.Address;
@@ -35,21 +39,23 @@ import org.wildfly.extras.creaper.core.online.operations.Operations;
 import org.wildfly.extras.creaper.core.online.operations.ReadResourceOption;
 
 /**
- * <p>A command for making backups and restores of attributes at given address.</p>
- * <p>Backup does not descend to children, it backups attributes only at given address!</p>
+ * <p>A command for making backups and restores of attributes at given addresses.</p>
+ * <p>Backup does not descend to children, it backups attributes only at given addresses!</p>
+ * <p>Restore reads the current attributes and writes back only those which differ from the backup. Dependencies are
+ * written first (in topological order) and all addresses are restored using one composite operation.</p>
  */
 public final class BackupAndRestoreAttributes {
 
-    private final Address address;
-    private final DirectedAcyclicGraph<String, String> dependencies;
+    private final List<Address> addresses;
+    private final DirectedAcyclicGraph<String, DefaultEdge> dependencies;
     private final Set<String> excluded;
 
     private final Logger logger = LoggerFactory.getLogger(BackupAndRestoreAttributes.class);
 
-    private ModelNode backup;
+    private List<ModelNode> backup;
 
     private BackupAndRestoreAttributes(Builder builder) {
-        this.address = builder.address;
+        this.addresses = builder.addresses;
         this.dependencies = builder.dependencies;
         this.excluded = builder.excluded;
     }
@@ -63,62 +69,38 @@ public final class BackupAndRestoreAttributes {
             }
             Operations ops = new Operations(ctx.client);
 
-            BackupAndRestoreAttributes.this.backup = ops.readResource(address, ReadResourceOption.INCLUDE_DEFAULTS,
-                    ReadResourceOption.ATTRIBUTES_ONLY).value();
+            BackupAndRestoreAttributes.this.backup = readAttributes(ops);
         }
     };
 
     private final OnlineCommand restorePart = new OnlineCommand() {
 
-        private final Batch batch = new Batch();
-
-        private Map<String, ModelNode> propertyListToMap(List<Property> propertyList) {
-            Map<String, ModelNode> attributeMap = new HashMap<>();
-            for (Property property : propertyList) {
-                logger.info("Adding '" + property.getName() + "' to map.");
-                attributeMap.put(property.getName(), property.getValue());
-            }
-            return attributeMap;
-        }
-
-
         @Override
         public void apply(OnlineCommandContext ctx) throws Exception {
             if (BackupAndRestoreAttributes.this.backup == null) {
                 throw new CommandFailedException("There is no backup to be restored!");
             }
 
-            Map<String, ModelNode> attributeValueMap = propertyListToMap(
-                    BackupAndRestoreAttributes.this.backup.asPropertyList());
-
-            if (dependencies != null) { //process dependencies
-                for (String attributeName : dependencies) {
-                    if (!attributeValueMap.containsKey(attributeName)) {
-                        throw new CommandFailedException(
-                                "Attribute '" + attributeName + "' is not present or it was previously added and removed!");
-                    }
-
-                    logger.info("Adding dependency '" + attributeName + "' to batch.");
-                    batch.writeAttribute(address,
-                            attributeName,
-                            attributeValueMap.get(attributeName));
-                    attributeValueMap.remove(attributeName);
-                }
+            Operations ops = new Operations(ctx.client);
+            List<ModelNode> current = readAttributes(ops);
+            Batch batch = new Batch();
+            int changed = 0;
+            for (int i = 0; i < addresses.size(); i++) {
+                changed += restoreAddress(batch, addresses.get(i), backup.get(i), current.get(i));
             }
 
-            for (Map.Entry<String, ModelNode> attributeEntry : attributeValueMap.entrySet()) {
-                if (excluded == null || !excluded.contains(attributeEntry.getKey())) { //attribute is not excluded
-                    logger.info("Adding attribute '" + attributeEntry + "' to batch.");
-                    batch.writeAttribute(address, attributeEntry.getKey(), attributeEntry.getValue());
+            if (changed > 0) {
+                logger.debug("Restoring {} changed attributes at {}", changed, addresses);
+                ModelNodeResult result = ops.batch(batch);
+                if (!result.isSuccess()) {
+                    logger.warn("Unable to restore attributes at {}: {}", addresses, result.getFailureDescription());
                 }
+            } else {
+                logger.debug("No changed attributes at {}", addresses);
             }
 
-            Operations ops = new Operations(ctx.client);
-            ops.batch(batch);
-
             BackupAndRestoreAttributes.this.backup = null; //can be reused after restoring attributes
         }
-
     };
 
     public OnlineCommand backup() {
@@ -129,15 +111,84 @@ public final class BackupAndRestoreAttributes {
         return restorePart;
     }
 
+    /** Reads the attributes of all addresses in the order of the addresses. */
+    private List<ModelNode> readAttributes(Operations ops) throws Exception {
+        List<ModelNode> attributes = new ArrayList<>();
+        for (Address address : addresses) {
+            ModelNodeResult result = ops.readResource(address, ReadResourceOption.INCLUDE_DEFAULTS,
+                    ReadResourceOption.ATTRIBUTES_ONLY);
+            if (!result.isSuccess()) {
+                throw new CommandFailedException("Unable to read attributes at " + address + ": "
+                        + result.getFailureDescription());
+            }
+            attributes.add(result.value());
+        }
+        return attributes;
+    }
+
+    /** Adds the attributes which differ from the backup to the batch and returns their number. */
+    private int restoreAddress(Batch batch, Address address, ModelNode backupValues, ModelNode currentValues)
+            throws CommandFailedException {
+        Map<String, ModelNode> attributeValueMap = new LinkedHashMap<>();
+        for (Property property : backupValues.asPropertyList()) {
+            attributeValueMap.put(property.getName(), property.getValue());
+        }
+
+        // process dependencies first, the iterator of the graph returns them in topological order
+        List<String> ordered = new ArrayList<>();
+        if (dependencies != null) {
+            for (String attributeName : dependencies) {
+                if (!attributeValueMap.containsKey(attributeName)) {
+                    throw new CommandFailedException("Attribute '" + attributeName + "' at " + address
+                            + " is not present or it was previously added and removed!");
+                }
+                ordered.add(attributeName);
+            }
+        }
+        for (String attributeName : attributeValueMap.keySet()) {
+            boolean dependency = dependencies != null && dependencies.containsVertex(attributeName);
+            if (!dependency && (excluded == null || !excluded.contains(attributeName))) {
+                ordered.add(attributeName);
+            }
+        }
+
+        int changed = 0;
+        for (String attributeName : ordered) {
+            ModelNode value = attributeValueMap.get(attributeName);
+            ModelNode currentValue = currentValues.has(attributeName) ? currentValues.get(attributeName)
+                    : new ModelNode();
+            if (value.equals(currentValue)) {
+                continue;
+            }
+            logger.debug("Restoring attribute '{}' at {}", attributeName, address);
+            if (value.isDefined()) {
+                batch.writeAttribute(address, attributeName, value);
+            } else {
+                batch.undefineAttribute(address, attributeName);
+            }
+            changed++;
+        }
+        return changed;
+    }
+
 
     public static final class Builder {
 
-        private Address address;
-        private DirectedAcyclicGraph<String, String> dependencies;
+        private final List<Address> addresses = new ArrayList<>();
+        private DirectedAcyclicGraph<String, DefaultEdge> dependencies;
         private Set<String> excluded;
 
-        public Builder(Address address) {
-            this.address = address;
+        public Builder(Address... addresses) {
+            Collections.addAll(this.addresses, addresses);
+        }
+
+        /**
+         * Add another address to backup and restore. All addresses are restored using one composite operation.
+         * Dependencies and excluded attributes apply to all addresses.
+         */
+        public Builder address(Address address) {
+            this.addresses.add(address);
+            return this;
         }
 
         /**
@@ -146,7 +197,7 @@ public final class BackupAndRestoreAttributes {
          */
         public Builder dependency(String attribute, String dependsOn) {
             if (dependencies == null && dependsOn != null) {
-                dependencies = new DirectedAcyclicGraph<>(String.class);
+                dependencies = new DirectedAcyclicGraph<>(DefaultEdge.class);
             }
             if (dependencies != null) {
                 dependencies.addVertex(attribute);
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.creaper.command;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.Property;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.CommandFailedException;
+import org.wildfly.extras.creaper.core.online.ModelNodeResult;
+import org.wildfly.extras.creaper.core.online.OnlineCommand;
+import org.wildfly.extras.creaper.core.online.OnlineCommandContext;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+import org.wildfly.extras.creaper.core.online.operations.Batch;
+import org.wildfly.extras.creaper.core.online.operations.Operations;
+import org.wildfly.extras.creaper.core.online.operations.Values;
+import org.wildfly.extras.creaper.core.online.operations.admin.Administration;
+
+import static org.jboss.hal.dmr.ModelDescriptionConstants.*;
+
+/**
+ * <p>A command for making a backup of the configuration and restoring only the resources which have been changed in
+ * between.</p>
+ *
+ * <p>The backup reads the whole configuration model (w/o defaults) into memory and enables the configuration change
+ * history of the {@code core-management} subsystem. The restore reads the addresses of all changes from this history,
+ * compares the current state of these resources with the backup and reverts the differences in one composite
+ * operation: resources added in between are removed, removed resources are added again and changed attributes are
+ * written back. The server is reloaded only if one of the reverted changes requires it.</p>
+ *
+ * <p>The restore fails with a {@link CommandFailedException} if the changes cannot be reverted this way. Callers are
+ * expected to fall back to a full restore (e.g. {@link
+ * org.wildfly.extras.creaper.commands.foundation.online.SnapshotBackup}) in that case. Works in standalone mode
+ * only.</p>
+ */
+public final class DifferentialBackup {
+
+    private static final Logger log = LoggerFactory.getLogger(DifferentialBackup.class);
+    private static final Address CORE_MANAGEMENT = Address.subsystem("core-management");
+    private static final Address CONFIGURATION_CHANGES = CORE_MANAGEMENT.and(SERVICE, "configuration-changes");
+    private static final String MAX_HISTORY = "max-history";
+    private static final int HISTORY_SIZE = 10_000;
+    private static final String ENABLE_FAILED = "Unable to enable the configuration changes";
+
+    private ModelNode snapshot;
+    /** The most recent entry of the change history at the time of the backup or an undefined node. */
+    private ModelNode lastChangeBefore;
+    private ModelNode previousHistorySize;
+
+    private final OnlineCommand backupPart = new OnlineCommand() {
+
+        @Override
+        public void apply(OnlineCommandContext ctx) throws Exception {
+            if (snapshot != null) {
+                throw new CommandFailedException("Backup has been already made!");
+            }
+            if (ctx.options.isDomain) {
+                throw new CommandFailedException("Differential backup is only supported in standalone mode");
+            }
+            Operations ops = new Operations(ctx.client);
+            if (!ops.exists(CORE_MANAGEMENT)) {
+                throw new CommandFailedException("Subsystem core-management is not available");
+            }
+            if (ops.exists(CONFIGURATION_CHANGES)) {
+                previousHistorySize = ops.readAttribute(CONFIGURATION_CHANGES, MAX_HISTORY).value();
+                check(ops.writeAttribute(CONFIGURATION_CHANGES, MAX_HISTORY, HISTORY_SIZE), ENABLE_FAILED);
+            } else {
+                check(ops.add(CONFIGURATION_CHANGES, Values.of(MAX_HISTORY, HISTORY_SIZE)), ENABLE_FAILED);
+            }
+            List<ModelNode> changes = listChanges(ops);
+            lastChangeBefore = changes.isEmpty() ? new ModelNode() : changes.get(0);
+            snapshot = readModel(ops, Address.root());
+        }
+    };
+
+    private final OnlineCommand restorePart = new OnlineCommand() {
+
+        @Override
+        public void apply(OnlineCommandContext ctx) throws Exception {
+            if (snapshot == null) {
+                throw new CommandFailedException("There is no backup to be restored!");
+            }
+            Operations ops = new Operations(ctx.client);
+            try {
+                List<Address> touched = touchedAddresses(ops);
+                Batch batch = revert(ops, touched);
+                if (batch != null) {
+                    check(ops.batch(batch), "Unable to revert the changes of " + touched);
+                    new Administration(ctx.client).reloadIfRequired();
+                }
+            } finally {
+                if (previousHistorySize != null) {
+                    ops.writeAttribute(CONFIGURATION_CHANGES, MAX_HISTORY, previousHistorySize);
+                } else {
+                    ops.removeIfExists(CONFIGURATION_CHANGES);
+                }
+                snapshot = null; // can be reused after restoring
+                lastChangeBefore = null;
+                previousHistorySize = null;
+            }
+        }
+    };
+
+    public OnlineCommand backup() {
+        return backupPart;
+    }
+
+    public OnlineCommand restore() {
+        return restorePart;
+    }
+
+
+    // ------------------------------------------------------ changes
+
+    private List<ModelNode> listChanges(Operations ops) throws IOException, CommandFailedException {
+        ModelNodeResult result = ops.invoke("list-changes", CONFIGURATION_CHANGES);
+        check(result, "Unable to list the configuration changes");
+        return result.value().asList();
+    }
+
+    /**
+     * Returns the addresses of all successful changes since the backup ordered by depth. Fails if the history does not
+     * contain the most recent change made before the backup anymore (e.g. because the history was reset), since then
+     * it's unknown which changes have been made since the backup.
+     */
+    private List<Address> touchedAddresses(Operations ops) throws Exception {
+        List<ModelNode> changes = listChanges(ops);
+        if (changes.size() >= HISTORY_SIZE) {
+            throw new CommandFailedException("Too many changes to be reverted: " + changes.size());
+        }
+        // the history lists the most recent changes first
+        int since = changes.size();
+        if (lastChangeBefore.isDefined()) {
+            since = changes.indexOf(lastChangeBefore);
+            if (since < 0) {
+                throw new CommandFailedException("The configuration change history has been reset since the backup");
+            }
+        }
+        Map<String, Address> addresses = new LinkedHashMap<>();
+        for (ModelNode change : changes.subList(0, since)) {
+            if (change.hasDefined(OUTCOME) && SUCCESS.equals(change.get(OUTCOME).asString())
+                    && change.hasDefined(OPERATIONS)) {
+                for (ModelNode operation : change.get(OPERATIONS).asList()) {
+                    collectAddresses(operation, addresses);
+                }
+            }
+        }
+        addresses.remove(CONFIGURATION_CHANGES.toString());
+        List<Address> result = new ArrayList<>(addresses.values());
+        result.sort(Comparator.comparingInt(DifferentialBackup::depth));
+        return result;
+    }
+
+    private void collectAddresses(ModelNode operation, Map<String, Address> addresses) {
+        if (operation.hasDefined(STEPS)) {
+            for (ModelNode step : operation.get(STEPS).asList()) {
+                collectAddresses(step, addresses);
+            }
+        } else if (operation.hasDefined(ADDRESS)) {
+            Address address = Address.root();
+            for (Property segment : operation.get(ADDRESS).asPropertyList()) {
+                address = address.and(segment.getName(), segment.getValue().asString());
+            }
+            addresses.put(address.toString(), address);
+        }
+    }
+
+
+    // ------------------------------------------------------ revert
+
+    /** Collects the operations to revert the changes or returns null if there's nothing to revert. */
+    private Batch revert(Operations ops, List<Address> touched) throws Exception {
+        List<String> handled = new ArrayList<>();
+        Batch batch = new Batch();
+        int steps = 0;
+
+        for (Address address : touched) {
+            if (isCovered(address, handled)) {
+                continue;
+            }
+            ModelNode before = navigate(snapshot, address);
+            ModelNode now = ops.exists(address) ? readModel(ops, address) : null;
+
+            if (before == null && now != null) {
+                log.debug("Remove {} added since backup", address);
+                batch.remove(address);
+                handled.add(address.toString());
+                steps++;
+
+            } else if (before != null && now == null) {
+                log.debug("Add {} removed since backup", address);
+                steps += add(batch, address, before, readDescription(ops, address, true));
+                handled.add(address.toString());
+
+            } else if (before != null) {
+                steps += writeAttributes(batch, address, before, now, readDescription(ops, address, false));
+            }
+        }
+        log.info("Reverting {} changed resources using {} operations", touched.size(), steps);
+        return steps > 0 ? batch : null;
+    }
+
+    /** Adds the resource and all its children from the backup. Returns the number of operations. */
+    private int add(Batch batch, Address address, ModelNode resource, ModelNode description)
+            throws CommandFailedException {
+        Values values = Values.empty();
+        for (String name : addParameters(description)) {
+            if (resource.hasDefined(name)) {
+                values = values.and(name, resource.get(name));
+            }
+        }
+        batch.add(address, values);
+        int steps = 1;
+
+        if (description.hasDefined(CHILDREN)) {
+            for (Property childType : description.get(CHILDREN).asPropertyList()) {
+                if (!resource.hasDefined(childType.getName())) {
+                    continue;
+                }
+                ModelNode childDescriptions = childType.getValue().get(MODEL_DESCRIPTION);
+                for (Property child : resource.get(childType.getName()).asPropertyList()) {
+                    ModelNode childDescription = childDescriptions.hasDefined(child.getName())
+                            ? childDescriptions.get(child.getName())
+                            : childDescriptions.get("*");
+                    if (!childDescription.isDefined()) {
+                        throw new CommandFailedException("No description for " + address + "/" + childType.getName()
+                                + "=" + child.getName());
+                    }
+                    steps += add(batch, address.and(childType.getName(), child.getName()), child.getValue(),
+                            childDescription);
+                }
+            }
+        }
+        return steps;
+    }
+
+    /** Writes back the changed configuration attributes. Undefines come first because of alternatives. */
+    private int writeAttributes(Batch batch, Address address, ModelNode before, ModelNode now,
+            ModelNode description) {
+        List<String> undefine = new ArrayList<>();
+        Map<String, ModelNode> write = new LinkedHashMap<>();
+        if (!description.hasDefined(ATTRIBUTES)) {
+            return 0;
+        }
+        for (Property attribute : description.get(ATTRIBUTES).asPropertyList()) {
+            if (!isWritableConfiguration(attribute.getValue())) {
+                continue;
+            }
+            String name = attribute.getName();
+            ModelNode expected = before.hasDefined(name) ? before.get(name) : new ModelNode();
+            ModelNode actual = now.hasDefined(name) ? now.get(name) : new ModelNode();
+            if (!expected.equals(actual)) {
+                if (expected.isDefined()) {
+                    write.put(name, expected);
+                } else {
+                    undefine.add(name);
+                }
+            }
+        }
+        undefine.forEach(name -> batch.undefineAttribute(address, name));
+        write.forEach((name, value) -> batch.writeAttribute(address, name, value));
+        if (!undefine.isEmpty() || !write.isEmpty()) {
+            log.debug("Revert attributes {} and undefine {} of {}", write.keySet(), undefine, address);
+        }
+        return undefine.size() + write.size();
+    }
+
+
+    // ------------------------------------------------------ helpers
+
+    private ModelNode readModel(Operations ops, Address address) throws IOException, CommandFailedException {
+        ModelNodeResult result = ops.invoke(READ_RESOURCE_OPERATION, address,
+                Values.of(RECURSIVE, true).and(INCLUDE_DEFAULTS, false));
+        check(result, "Unable to read " + address);
+        return result.value();
+    }
+
+    private ModelNode readDescription(Operations ops, Address address, boolean recursive)
+            throws IOException, CommandFailedException {
+        ModelNodeResult result = ops.invoke(READ_RESOURCE_DESCRIPTION_OPERATION, address,
+                Values.of(RECURSIVE, recursive).and(OPERATIONS, recursive));
+        check(result, "Unable to read resource description of " + address);
+        return result.value();
+    }
+
+    private static void check(ModelNodeResult result, String message) throws CommandFailedException {
+        if (!result.isSuccess()) {
+            throw new CommandFailedException(message + ": " + result.getFailureDescription());
+        }
+    }
+
+    /** Uses the parameters of the add operation if available, otherwise all configuration attributes. */
+    private List<String> addParameters(ModelNode description) {
+        List<String> names = new ArrayList<>();
+        ModelNode addOperation = description.get(OPERATIONS, ADD);
+        if (addOperation.hasDefined(REQUEST_PROPERTIES)) {
+            addOperation.get(REQUEST_PROPERTIES).keys().forEach(names::add);
+        } else if (description.hasDefined(ATTRIBUTES)) {
+            for (Property attribute : description.get(ATTRIBUTES).asPropertyList()) {
+                if (isWritableConfiguration(attribute.getValue())) {
+                    names.add(attribute.getName());
+                }
+            }
+        }
+        return names;
+    }
+
+    private boolean isWritableConfiguration(ModelNode attributeDescription) {
+        boolean configuration = !attributeDescription.hasDefined(STORAGE)
+                || CONFIGURATION.equals(attributeDescription.get(STORAGE).asString());
+        boolean writable = attributeDescription.hasDefined(ACCESS_TYPE)
+                && READ_WRITE.equals(attributeDescription.get(ACCESS_TYPE).asString());
+        return configuration && writable;
+    }
+
+    /** Returns the part of the model for the specified address or null if it does not exist. */
+    private static ModelNode navigate(ModelNode model, Address address) {
+        ModelNode node = model;
+        for (Property segment : address.toModelNode().asPropertyList()) {
+            String type = segment.getName();
+            String name = segment.getValue().asString();
+            if (!node.hasDefined(type) || !node.get(type).hasDefined(name)) {
+                return null;
+            }
+            node = node.get(type).get(name);
+        }
+        return node;
+    }
+
+    /** Whether the address is the same as or below an address which has already been added or removed. */
+    private static boolean isCovered(Address address, List<String> handled) {
+        String path = address.toString();
+        for (String parent : handled) {
+            if (path.equals(parent) || path.startsWith(parent + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int depth(Address address) {
+        return address.toModelNode().asList().size();
+    }
+}
@@ -15,14 +15,24 @@
  */
 package org.jboss.hal.testsuite.fragment;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
 import com.google.common.base.Strings;
 import org.jboss.arquillian.core.api.annotation.Inject;
 import org.jboss.arquillian.drone.api.annotation.Drone;
 import org.jboss.arquillian.graphene.findby.ByJQuery;
 import org.jboss.arquillian.graphene.fragment.Root;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.Property;
 import org.jboss.hal.resources.CSS;
 import org.jboss.hal.resources.Ids;
 import org.jboss.hal.testsuite.Console;
+import org.jboss.hal.testsuite.DomWait;
 import org.openqa.selenium.By;
 import org.openqa.selenium.ElementClickInterceptedException;
 import org.openqa.selenium.JavascriptExecutor;
@@ -43,6 +53,65 @@ public class FormFragment {
 
     private static final String DOT = ".";
 
+    /**
+     * Sets the values of all fields passed in {@code arguments[0]} ({@code [{id, value}]}) and fires the events HAL
+     * listens for exactly once. The kind of form item is detected from the DOM: bootstrap switch, bootstrap select,
+     * tags input (list and properties) or text input. Bootstrap select items are refreshed without {@code
+     * selectpicker('val')}, since that fires the change events on its own in some versions.
+     */
+    private static final String FILL_SCRIPT = "var missing = [];"
+            + "arguments[0].forEach(function(field) {"
+            + "  var el = document.getElementById(field.id);"
+            + "  if (!el) { missing.push(field.id); return; }"
+            + "  var $el = $(el);"
+            + "  if (el.type === 'checkbox' && $el.parents('.bootstrap-switch').length) {"
+            + "    $el.bootstrapSwitch('state', field.value === true);"
+            + "  } else if (el.tagName === 'SELECT') {"
+            + "    var old = $el.val();"
+            + "    $el.val(field.value).selectpicker('refresh');"
+            + "    $el.trigger('changed.bs.select', [el.selectedIndex, true, old]);"
+            + "    $el.trigger('change');"
+            + "  } else if (Array.isArray(field.value)) {"
+            + "    var tags = $el.hasClass('tags') ? $el"
+            + "        : $el.closest('[data-form-item-group]').find('input.tags').first();"
+            + "    tags.tagsManager('empty');"
+            + "    field.value.forEach(function(tag) { tags.tagsManager('pushTag', tag); });"
+            + "  } else {"
+            + "    el.value = field.value;"
+            + "    ['input', 'keyup', 'change'].forEach(function(type) {"
+            + "      el.dispatchEvent(new Event(type, {bubbles: true}));"
+            + "    });"
+            + "  }"
+            + "});"
+            + "return missing;";
+
+    /** Reads back all fields and returns the descriptions of the fields which don't have the expected value. */
+    private static final String VERIFY_SCRIPT = "var mismatches = [];"
+            + "arguments[0].forEach(function(field) {"
+            + "  var el = document.getElementById(field.id);"
+            + "  var actual;"
+            + "  if (!el) { mismatches.push(field.id + ': not found'); return; }"
+            + "  if (el.type === 'checkbox') {"
+            + "    actual = el.checked;"
+            + "    if (actual !== (field.value === true)) { mismatches.push(field.id + ': ' + actual); }"
+            + "  } else if (Array.isArray(field.value)) {"
+            + "    var group = $(el).closest('[data-form-item-group]');"
+            + "    var tags = (group.length ? group : $(el).parent()).find('.tm-tag > span')"
+            + "        .map(function() { return $(this).text(); }).get();"
+            + "    var unique = function(values) {"
+            + "      return values.filter(function(v, i) { return values.indexOf(v) === i; }).sort();"
+            + "    };"
+            + "    actual = unique(tags);"
+            + "    if (JSON.stringify(actual) !== JSON.stringify(unique(field.value))) {"
+            + "      mismatches.push(field.id + ': tags ' + actual);"
+            + "    }"
+            + "  } else {"
+            + "    actual = $(el).val();"
+            + "    if (String(actual) !== String(field.value)) { mismatches.push(field.id + ': ' + actual); }"
+            + "  }"
+            + "});"
+            + "return mismatches;";
+
     @Drone
     private WebDriver browser;
     @Root
@@ -85,7 +154,7 @@ public class FormFragment {
      * TabsFragment#select(String) select} the tab first!
      */
     public void viewBlank() {
-        waitGui().until().element(blankSlate).is().visible();
+        DomWait.element(browser, blankSlate).visible();
     }
 
     // ------------------------------------------------------ read-only mode
@@ -95,7 +164,7 @@ public class FormFragment {
      * TabsFragment#select(String) select} the tab first!
      */
     public void view() {
-        waitGui().until().element(readOnlySection).is().visible();
+        DomWait.element(browser, readOnlySection).visible();
     }
 
     /** Returns the value of the specified attribute in the read-only section. */
@@ -126,10 +195,10 @@ public class FormFragment {
     /** Clicks on the edit link and waits until the editing section is visible. */
     public void edit() {
         editLink.click();
-        waitGui().until().element(editingSection).is().visible();
+        DomWait.element(browser, editingSection).visible();
         // wait until the first input element has focus
         try {
-            waitGui().until().element(By.cssSelector(DOT + editing + " input:first-of-type:focus")).is().present();
+            DomWait.element(browser, By.cssSelector(DOT + editing + " input:first-of-type:focus")).present();
         } catch (TimeoutException ignored) {
             // some forms have a disabled first input field
         }
@@ -149,7 +218,7 @@ public class FormFragment {
      */
     public void save() {
         console.scrollIntoView(saveButton).click();
-        waitGui().until().element(readOnlySection).is().visible();
+        DomWait.element(browser, readOnlySection).visible();
     }
 
     /**
@@ -157,7 +226,7 @@ public class FormFragment {
      */
     public void cancel() {
         console.scrollIntoView(cancelButton).click();
-        waitGui().until().element(readOnlySection).is().visible();
+        DomWait.element(browser, readOnlySection).visible();
     }
 
     /** Changes the specified text input element. */
@@ -165,9 +234,9 @@ public class FormFragment {
         console.waitNoNotification(); // sometime notification interfere with text input
         WebElement inputElement = inputElement(name);
         inputElement.clear();
-        waitGui().until().element(inputElement).value().equalTo("");
+        DomWait.element(browser, inputElement).valueEquals("");
         inputElement.sendKeys(value);
-        waitGui().until().element(inputElement).value().equalTo(value);
+        DomWait.element(browser, inputElement).valueEquals(value);
     }
 
     public void textByLabel(String labelContent, String value) {
@@ -176,9 +245,9 @@ public class FormFragment {
             browser.findElement(
                 ByJQuery.selector("label[title='" + labelContent + "']:visible + div." + halFormInput + " > input"));
         inputElement.clear();
-        waitGui().until().element(inputElement).value().equalTo("");
+        DomWait.element(browser, inputElement).valueEquals("");
         inputElement.sendKeys(value);
-        waitGui().until().element(inputElement).value().equalTo(value);
+        DomWait.element(browser, inputElement).valueEquals(value);
     }
 
     /** @return value of the text input */
@@ -268,11 +337,78 @@ public class FormFragment {
         return this;
     }
 
+    /**
+     * Fills all specified fields using one script execution and verifies the values using one read-back pass. Much
+     * faster than filling the fields one by one, but does not simulate key strokes. Use the single field methods
+     * like {@link #text(String, String)} for tests covering the keyboard behaviour.
+     *
+     * <p>Supported values are</p>
+     * <ul>
+     * <li>{@code String} and {@code Number}: text, number and select items</li>
+     * <li>{@code Boolean}: switch items</li>
+     * <li>{@code List<String>}: tags replace the tags of list items</li>
+     * <li>{@code Map<String, String>} and {@code ModelNode}: name/value pairs replace the tags of properties items</li>
+     * </ul>
+     */
+    public FormFragment fill(Map<String, Object> values) {
+        console.waitNoNotification();
+        List<Map<String, Object>> fields = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Map<String, Object> field = new HashMap<>();
+            field.put("id", editingId(entry.getKey()));
+            field.put("value", scriptValue(entry.getValue()));
+            fields.add(field);
+        }
+
+        JavascriptExecutor js = (JavascriptExecutor) browser;
+        Object missing = js.executeScript(FILL_SCRIPT, fields);
+        if (missing instanceof List && !((List<?>) missing).isEmpty()) {
+            throw new IllegalArgumentException("Form items not found in " + rootId() + ": " + missing);
+        }
+
+        List<?>[] mismatches = new List<?>[1];
+        Function<WebDriver, Boolean> filled = driver -> {
+            mismatches[0] = (List<?>) js.executeScript(VERIFY_SCRIPT, fields);
+            return mismatches[0].isEmpty();
+        };
+        try {
+            waitGui().until(filled);
+        } catch (TimeoutException e) {
+            throw new AssertionError("Form items in " + rootId() + " don't have the expected values: "
+                    + mismatches[0], e);
+        }
+        return this;
+    }
+
+    /** Converts the value to a type which can be passed to {@link JavascriptExecutor#executeScript}. */
+    private Object scriptValue(Object value) {
+        if (value instanceof Boolean || value instanceof String) {
+            return value;
+        } else if (value instanceof Number) {
+            return String.valueOf(value);
+        } else if (value instanceof List) {
+            List<String> tagValues = new ArrayList<>();
+            ((List<?>) value).forEach(tag -> tagValues.add(String.valueOf(tag)));
+            return tagValues;
+        } else if (value instanceof ModelNode) {
+            Map<String, String> properties = new LinkedHashMap<>();
+            for (Property property : ((ModelNode) value).asPropertyList()) {
+                properties.put(property.getName(), property.getValue().asString());
+            }
+            return scriptValue(properties);
+        } else if (value instanceof Map) {
+            List<String> tagValues = new ArrayList<>();
+            ((Map<?, ?>) value).forEach((name, v) -> tagValues.add(name + "=" + v));
+            return tagValues;
+        }
+        throw new IllegalArgumentException("Unsupported value for bulk fill: " + value);
+    }
+
     public void clear(String name) {
         console.waitNoNotification();
         WebElement inputElement = inputElement(name);
         inputElement.clear();
-        waitGui().until().element(inputElement).value().equalTo("");
+        DomWait.element(browser, inputElement).valueEquals("");
     }
 
     /** Expects an error for the specified attribute */
@@ -315,7 +451,7 @@ public class FormFragment {
 
         removeLink.click();
         console.confirmationDialog().confirm();
-        waitGui().until().element(blankSlate).is().visible();
+        DomWait.element(browser, blankSlate).visible();
     }
 
     // ------------------------------------------------------ properties
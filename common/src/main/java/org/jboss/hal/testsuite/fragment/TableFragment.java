@@ -17,27 +17,55 @@ package org.jboss.hal.testsuite.fragment;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import org.jboss.arquillian.core.api.annotation.Inject;
+import org.jboss.arquillian.drone.api.annotation.Drone;
 import org.jboss.arquillian.graphene.Graphene;
 import org.jboss.arquillian.graphene.findby.ByJQuery;
 import org.jboss.arquillian.graphene.fragment.Root;
 import org.jboss.hal.testsuite.Console;
+import org.jboss.hal.testsuite.DomWait;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 
 import static org.jboss.arquillian.graphene.Graphene.waitGui;
-import static org.jboss.hal.resources.CSS.columnAction;
 import static org.jboss.hal.resources.CSS.halTableButtons;
 import static org.jboss.hal.testsuite.Selectors.contains;
 
 /** Fragment for a data table. */
 public class TableFragment {
 
+    /**
+     * Searches the rows of the DataTables instance in the current search and sort order for a row containing the
+     * specified text and draws the page of that row. Returns the index of the row or -1 if no such row exists. Rows
+     * which have not been rendered yet (deferred rendering) are matched against their rendered cell data.
+     */
+    private static final String JUMP_TO_ROW_SCRIPT = "var table = $(arguments[0]).find('table.dataTable').first();"
+            + "if (!table.length || !$.fn.dataTable.isDataTable(table)) { return -2; }"
+            + "var api = table.DataTable();"
+            + "var rows = api.rows({search: 'applied', order: 'applied'}).indexes().toArray();"
+            + "for (var i = 0; i < rows.length; i++) {"
+            + "  var node = api.row(rows[i]).node();"
+            + "  var text = node ? $(node).text() : api.cells(rows[i], '').render('display').toArray().join(' ');"
+            + "  if (text.indexOf(arguments[1]) >= 0) {"
+            + "    var length = api.page.len();"
+            + "    var page = length > 0 ? Math.floor(i / length) : 0;"
+            + "    if (api.page() !== page) { api.page(page).draw('page'); }"
+            + "    return i;"
+            + "  }"
+            + "}"
+            + "return -1;";
+    private static final String TBODY_ROW = "tbody > tr";
+
     @Root private WebElement root;
     @FindBy(css = "." + halTableButtons) private WebElement buttons;
     @Inject private Console console;
+    @Drone private WebDriver browser;
     private List<FormFragment> forms;
     private List<FormFragment> blankForms;
     private PagerFragment pager;
@@ -59,9 +87,9 @@ public class TableFragment {
         By selector = By.tagName("input");
         WebElement inputElement = root.findElement(selector);
         inputElement.clear();
-        waitGui().until().element(inputElement).value().equalTo("");
+        DomWait.element(browser, inputElement).valueEquals("");
         inputElement.sendKeys(name);
-        waitGui().until().element(inputElement).value().equalTo(name);
+        DomWait.element(browser, inputElement).valueEquals(name);
     }
 
     /** Filter the table items and select the table item */
@@ -74,7 +102,7 @@ public class TableFragment {
     public void remove(String name) {
         select(name);
         WebElement button = button("Remove");
-        waitGui().until().element(button).is().enabled();
+        DomWait.element(browser, button).enabled();
         button.click();
         console.confirmationDialog().confirm();
     }
@@ -84,22 +112,38 @@ public class TableFragment {
         return buttons.findElement(selector);
     }
 
+    /**
+     * Jumps to the page containing the first row which contains the specified value and returns a handle for that
+     * row. The handle can be used for follow-up actions without searching the table again (as long as the table is
+     * not redrawn).
+     */
+    public TableRow row(String value) {
+        By selector = ByJQuery.selector(TBODY_ROW + contains(value));
+        goToPageWithElement(value, selector);
+        return new TableRow(this, value, root.findElement(selector));
+    }
+
     /**
      * Selects the first {@code td} which contains the specified value, then clicks on it. <br />
      * If forms were bound to this table, {@link FormFragment#view()} is called for each one. <br />
      * If blank forms were bound to this table, {@link FormFragment#viewBlank()} is called for each one. <br />
+     *
+     * @return a handle for the selected row
      */
-    public void select(String value) {
-        By selector = ByJQuery.selector("td" + contains(value));
-        goToPageWithElement(selector);
-        WebElement rowElement = root.findElement(selector);
+    public TableRow select(String value) {
+        TableRow row = row(value);
+        select(row);
+        return row;
+    }
 
-        WebElement row = root.findElement(ByJQuery.selector("tbody > tr" + contains(value)));
+    /** Selects the row, see {@link #select(String)}. */
+    void select(TableRow tableRow) {
+        WebElement row = tableRow.getElement();
         String classAttribute = row.getAttribute("class");
 
         // only click the row if it is not selected
         if (classAttribute != null && classAttribute.indexOf("selected") < 0) {
-            rowElement.click();
+            row.findElement(ByJQuery.selector("td" + contains(tableRow.getValue()))).click();
             if (!forms.isEmpty()) {
                 for (FormFragment form : forms) {
                     if (form.getRoot().isDisplayed()) {
@@ -119,9 +163,7 @@ public class TableFragment {
 
     /** Clicks on the &lt;action&gt; column in the row which contains "&lt;value&gt;". */
     public void action(String value, String action) {
-        By selector = ByJQuery.selector("td" + contains(value) + " ~ td button." + columnAction + contains(action));
-        goToPageWithElement(selector);
-        root.findElement(selector).click();
+        row(value).action(action);
     }
 
     /**
@@ -164,7 +206,23 @@ public class TableFragment {
         console.scrollIntoView(root, "{block: \"start\"}");
     }
 
-    private void goToPageWithElement(By selector) {
+    /**
+     * Uses the DataTables API to jump directly to the page with the row containing the value. Falls back to paging
+     * through the table if the API is not available.
+     */
+    private void goToPageWithElement(String value, By selector) {
+        Object index;
+        try {
+            index = ((JavascriptExecutor) browser).executeScript(JUMP_TO_ROW_SCRIPT, root, value);
+        } catch (WebDriverException e) {
+            index = null;
+        }
+        if (index instanceof Number && ((Number) index).intValue() >= 0) {
+            Function<WebDriver, Boolean> rowPresent = driver -> !root.findElements(selector).isEmpty();
+            waitGui().until(rowPresent);
+            return;
+        }
+
         PagerFragment pager = getPager();
         pager.goToFirstPage();
         while (root.findElements(selector).isEmpty() && !pager.isLastPage()) {
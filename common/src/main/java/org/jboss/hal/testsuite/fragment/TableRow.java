@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.fragment;
+
+import org.jboss.arquillian.graphene.findby.ByJQuery;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import static org.jboss.hal.resources.CSS.columnAction;
+import static org.jboss.hal.testsuite.Selectors.contains;
+
+/**
+ * Handle for a row of a {@link TableFragment}. Use {@link TableFragment#row(String)} or {@link
+ * TableFragment#select(String)} to get an instance. The handle becomes stale if the table is redrawn (e.g. after
+ * sorting, filtering or changing the page).
+ */
+public class TableRow {
+
+    private final TableFragment table;
+    private final String value;
+    private final WebElement element;
+
+    TableRow(TableFragment table, String value, WebElement element) {
+        this.table = table;
+        this.value = value;
+        this.element = element;
+    }
+
+    /** Selects the row, see {@link TableFragment#select(String)}. */
+    public TableRow select() {
+        table.select(this);
+        return this;
+    }
+
+    /** Clicks on the &lt;action&gt; column of this row. */
+    public void action(String action) {
+        By selector = ByJQuery.selector("td button." + columnAction + contains(action));
+        element.findElement(selector).click();
+    }
+
+    public boolean isSelected() {
+        String classAttribute = element.getAttribute("class");
+        return classAttribute != null && classAttribute.contains("selected");
+    }
+
+    /** The value used to find this row. */
+    public String getValue() {
+        return value;
+    }
+
+    public WebElement getElement() {
+        return element;
+    }
+}
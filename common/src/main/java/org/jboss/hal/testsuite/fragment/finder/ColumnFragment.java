@@ -15,30 +15,39 @@
  */
 package org.jboss.hal.testsuite.fragment.finder;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.jboss.arquillian.core.api.annotation.Inject;
 import org.jboss.arquillian.drone.api.annotation.Drone;
 import org.jboss.arquillian.graphene.fragment.Root;
 import org.jboss.hal.resources.Ids;
 import org.jboss.hal.testsuite.Console;
+import org.jboss.hal.testsuite.DomWait;
 import org.jboss.hal.testsuite.fragment.AddResourceDialogFragment;
 import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
 import static org.jboss.arquillian.graphene.Graphene.createPageFragment;
-import static org.jboss.arquillian.graphene.Graphene.waitGui;
 import static org.jboss.hal.resources.CSS.active;
 import static org.jboss.hal.resources.CSS.finderItem;
 
-/** Page fragment for one finder column. Use {@link FinderFragment#column(String)} to get an instance. */
+/**
+ * Page fragment for one finder column. Use {@link FinderFragment#column(String)} to get an instance.
+ *
+ * <p>The item fragments returned by {@link #selectItem(String)} are cached until the column is {@linkplain #refresh()
+ * refreshed} or the item element has been replaced.</p>
+ */
 public class ColumnFragment {
 
     @Drone private WebDriver browser;
     @Root private WebElement root;
     @Inject private Console console;
     private String columnId;
+    private final Map<String, ItemFragment> items = new HashMap<>();
 
 
     // ------------------------------------------------------ column
@@ -58,13 +67,14 @@ public class ColumnFragment {
      */
     public void refresh() {
         assertColumnId();
+        items.clear();
         action(Ids.build(columnId, Ids.REFRESH)).click();
     }
 
     /** Opens the action dropdown and clicks on the specified action */
     public void dropdownAction(String dropdownId, String actionId) {
         root.findElement(By.id(dropdownId)).click();
-        waitGui().until().element(By.cssSelector("ul[aria-labelledby=" + dropdownId + "]")).is().visible();
+        DomWait.element(browser, By.cssSelector("ul[aria-labelledby=" + dropdownId + "]")).visible();
         action(actionId).click();
     }
 
@@ -87,17 +97,27 @@ public class ColumnFragment {
     }
 
     public ItemFragment selectItem(String itemId) {
+        ItemFragment item = items.get(itemId);
+        if (item != null) {
+            try {
+                item.getRoot().click();
+                return item;
+            } catch (StaleElementReferenceException e) {
+                items.remove(itemId);
+            }
+        }
         By selector = By.id(itemId);
-        waitGui().until().element(selector).is().visible();
-        ItemFragment item = createPageFragment(ItemFragment.class, browser.findElement(selector));
+        DomWait.element(browser, selector).visible();
+        item = createPageFragment(ItemFragment.class, browser.findElement(selector));
         item.getRoot().click();
         item.initItemId(itemId);
+        items.put(itemId, item);
         return item;
     }
 
     public boolean isSelected(String itemId) {
         By selector = By.cssSelector("#" + itemId + "." + active);
-        waitGui().until().element(selector).is().visible();
+        DomWait.element(browser, selector).visible();
         return true;
     }
 
@@ -106,6 +126,15 @@ public class ColumnFragment {
     }
 
 
+    public WebElement getRoot() {
+        return root;
+    }
+
+    public String getColumnId() {
+        return columnId;
+    }
+
+
     // ------------------------------------------------------ internals
 
     /**
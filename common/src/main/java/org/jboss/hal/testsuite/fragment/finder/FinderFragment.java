@@ -15,18 +15,30 @@
  */
 package org.jboss.hal.testsuite.fragment.finder;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.jboss.arquillian.drone.api.annotation.Drone;
 import org.jboss.hal.resources.Ids;
 import org.jboss.hal.resources.Names;
 import org.jboss.hal.testsuite.Console;
 import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriver;
 
 import static org.jboss.arquillian.graphene.Graphene.createPageFragment;
 import static org.jboss.arquillian.graphene.Graphene.waitGui;
 import static org.jboss.arquillian.graphene.Graphene.waitModel;
 
-/** Fragment for the finder. Use {@link Console#finder(String)} to get an instance. */
+/**
+ * Fragment for the finder. Use {@link Console#finder(String)} to get an instance.
+ *
+ * <p>The column fragments are cached for the life of this fragment, i.e. until the next call of {@link
+ * Console#finder(String)}. Columns of the finder path passed to {@link Console#finder(String, FinderPath)} are known
+ * to be present and are returned without waiting.</p>
+ */
 public class FinderFragment {
 
     public static FinderPath configurationSubsystemPath(String subsystem) {
@@ -42,13 +54,22 @@ public class FinderFragment {
     }
 
     @Drone private WebDriver browser;
+    private final Map<String, ColumnFragment> columns = new HashMap<>();
+    private final Set<String> present = new HashSet<>();
 
     /** Returns the specified column. */
     public ColumnFragment column(String columnId) {
+        ColumnFragment column = columns.get(columnId);
+        if (column != null && isAttached(column)) {
+            return column;
+        }
         By selector = By.id(columnId);
-        waitModel().until().element(selector).is().present();
-        ColumnFragment column = createPageFragment(ColumnFragment.class, browser.findElement(selector));
+        if (!present.remove(columnId)) {
+            waitModel().until().element(selector).is().present();
+        }
+        column = createPageFragment(ColumnFragment.class, browser.findElement(selector));
         column.initColumnId(columnId);
+        columns.put(columnId, column);
         return column;
     }
 
@@ -61,4 +82,34 @@ public class FinderFragment {
         waitGui().until().element(selector).is().present();
         return createPageFragment(returningFragmentType, browser.findElement(selector));
     }
+
+
+    // ------------------------------------------------------ internals
+
+    /**
+     * Initializes the finder with the columns which are known to be present. Must not be called manually. Instead use
+     * {@link Console#finder(String, FinderPath)} which calls this method automatically.
+     */
+    @SuppressWarnings("WeakerAccess") // public bc it's called from generated proxies
+    public void initPath(FinderPath path) {
+        columns.clear();
+        present.clear();
+        if (path != null) {
+            for (FinderSegment segment : path) {
+                if (segment.getColumnId() != null) {
+                    present.add(segment.getColumnId());
+                }
+            }
+        }
+    }
+
+    private boolean isAttached(ColumnFragment column) {
+        try {
+            column.getRoot().isEnabled();
+            return true;
+        } catch (StaleElementReferenceException e) {
+            columns.remove(column.getColumnId());
+            return false;
+        }
+    }
 }
@@ -21,11 +21,18 @@ import com.gwtplatform.mvp.shared.proxy.PlaceRequest;
 
 public abstract class BasePage extends AbstractPage {
 
+    /**
+     * Navigates to the name token specified in the {@code @Place} annotation. Uses {@link
+     * org.jboss.hal.testsuite.Console#navigateSoft(PlaceRequest)} if enabled and falls back to a browser refresh
+     * otherwise.
+     */
     @Override
     public void navigate() {
         PlaceRequest placeRequest = new PlaceRequest.Builder().nameToken(assertPlace().value()).build();
-        browser.navigate().refresh();
-        console.navigate(placeRequest);
+        if (!console.navigateSoft(placeRequest)) {
+            browser.navigate().refresh();
+            console.navigate(placeRequest);
+        }
     }
 
     /**
@@ -1,29 +1,50 @@
 package org.jboss.hal.testsuite.testlistener;
 
 import org.jboss.hal.testsuite.creaper.ManagementClientProvider;
+import org.jboss.hal.testsuite.creaper.command.DifferentialBackup;
+import org.jboss.hal.testsuite.util.ConfigUtils;
 import org.junit.runner.Description;
 import org.junit.runner.Result;
 import org.junit.runner.notification.RunListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wildfly.extras.creaper.commands.foundation.online.SnapshotBackup;
+import org.wildfly.extras.creaper.core.CommandFailedException;
 import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
 
 /**
  * This class (if registered) backups server configuration file before each test case run and restore it afterwards.
+ * <p>
+ * With {@code restore.configuration.mode=differential} only the resources changed during the run are reverted (see
+ * {@link DifferentialBackup}). The configuration file is backed up anyway and restored if the differential restore
+ * fails.
  */
 public class RestoreConfigurationListener extends RunListener {
 
     private static final Logger log = LoggerFactory.getLogger(RestoreConfigurationListener.class);
+    private static final boolean DIFFERENTIAL = "differential".equals(
+            ConfigUtils.get("restore.configuration.mode", "snapshot"));
+
     private SnapshotBackup snapshotBackup;
+    private DifferentialBackup differentialBackup;
 
     @Override
     public void testRunStarted(Description description) throws Exception {
         snapshotBackup = new SnapshotBackup();
+        differentialBackup = null;
         try (OnlineManagementClient client = ManagementClientProvider.createOnlineManagementClient()) {
             log.debug("Going to backup server configuration before '{}' run.", description.getChildren());
             if (client != null) {
                 client.apply(snapshotBackup.backup());
+                if (DIFFERENTIAL) {
+                    DifferentialBackup backup = new DifferentialBackup();
+                    try {
+                        client.apply(backup.backup());
+                        differentialBackup = backup;
+                    } catch (CommandFailedException | RuntimeException e) {
+                        log.warn("Differential backup not available, using snapshot restore: {}", e.getMessage());
+                    }
+                }
             }
         }
     }
@@ -33,6 +54,14 @@ public class RestoreConfigurationListener extends RunListener {
         try (OnlineManagementClient client = ManagementClientProvider.createOnlineManagementClient()) {
             log.debug("Going to restore server configuration.");
             if (client != null) {
+                if (differentialBackup != null) {
+                    try {
+                        client.apply(differentialBackup.restore());
+                        return;
+                    } catch (CommandFailedException | RuntimeException e) {
+                        log.warn("Differential restore failed, falling back to snapshot restore.", e);
+                    }
+                }
                 client.apply(snapshotBackup.restore());
             }
         }
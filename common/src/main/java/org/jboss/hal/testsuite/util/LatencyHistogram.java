@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe latency histogram with exponential buckets. Bucket {@code i} counts the latencies in {@code [2^i,
+ * 2^(i+1))} microseconds, so percentiles are accurate up to a factor of two, which is enough to tell a 10 ms
+ * invocation from a 1 s invocation.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long duration, TimeUnit unit) {
+        long micros = Math.max(0, unit.toMicros(duration));
+        buckets.incrementAndGet(bucket(micros));
+        count.incrementAndGet();
+        total.addAndGet(micros);
+        min.accumulateAndGet(micros, Math::min);
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    /** Returns the minimal latency in microseconds or 0 if nothing was recorded. */
+    public long min() {
+        return count() == 0 ? 0 : min.get();
+    }
+
+    /** Returns the maximal latency in microseconds. */
+    public long max() {
+        return max.get();
+    }
+
+    /** Returns the mean latency in microseconds. */
+    public long mean() {
+        long count = count();
+        return count == 0 ? 0 : total.get() / count;
+    }
+
+    /**
+     * Returns the upper bound in microseconds of the bucket containing the specified percentile (0 - 100), but not
+     * more than {@link #max()}.
+     */
+    public long percentile(double percentile) {
+        long count = count();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank && seen > 0) {
+                return Math.min(max(), (1L << (i + 1)) - 1);
+            }
+        }
+        return max();
+    }
+
+    /** Returns the number of latencies per bucket. The bucket {@code i} covers {@code [2^i, 2^(i+1))} µs. */
+    public long[] buckets() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = buckets.get(i);
+        }
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d invocations, min %s, mean %s, p50 %s, p90 %s, p99 %s, max %s", count(),
+                millis(min()), millis(mean()), millis(percentile(50)), millis(percentile(90)),
+                millis(percentile(99)), millis(max()));
+    }
+
+    private static int bucket(long micros) {
+        int bucket = 63 - Long.numberOfLeadingZeros(Math.max(1, micros));
+        return Math.min(BUCKETS - 1, bucket);
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.1f ms", micros / 1000.0);
+    }
+}
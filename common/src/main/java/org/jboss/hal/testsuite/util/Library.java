@@ -35,7 +35,7 @@ public class Library {
      * @param timeout time to sleep in ms
      */
     public static void letsSleep(long timeout) {
-        try {
+        try (TestTimings.Span ignored = TestTimings.start(TestTimings.Category.SLEEP)) {
             Thread.sleep(timeout);
         } catch (InterruptedException ex) {
             throw new RuntimeException(ex);
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fires HTTP GET invocations against a deployment with a configurable concurrency and records the latencies in a
+ * {@link LatencyHistogram}. Use it to generate the invocations which runtime statistics (invocations, execution time,
+ * peak concurrent invocations, sessions, ...) are based on:
+ * <pre>
+ * LoadGenerator.Result result = new LoadGenerator(url).invocations(10).concurrency(5).run();
+ * </pre>
+ *
+ * <p>All workers are released at the same time, so up to {@code concurrency} invocations are in flight at once. Use
+ * {@link #hold(long, TimeUnit)} to keep {@code concurrency} invocations in flight for a period of time instead of
+ * firing a fixed number of invocations.</p>
+ */
+public class LoadGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final int TIMEOUT = Integer.parseInt(ConfigUtils.get("load.timeout", "30000"));
+
+    private final URL url;
+    private int invocations;
+    private int concurrency;
+    private long holdMillis;
+
+    public LoadGenerator(String url) {
+        try {
+            this.url = new URL(url);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid URL " + url, e);
+        }
+        this.invocations = 1;
+        this.concurrency = 1;
+    }
+
+    /** The total number of invocations. */
+    public LoadGenerator invocations(int invocations) {
+        this.invocations = invocations;
+        return this;
+    }
+
+    /** The number of invocations in flight at the same time. */
+    public LoadGenerator concurrency(int concurrency) {
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /** Keeps {@code concurrency} invocations in flight for the specified time. Overrides {@link #invocations(int)}. */
+    public LoadGenerator hold(long duration, TimeUnit unit) {
+        this.holdMillis = unit.toMillis(duration);
+        return this;
+    }
+
+    /** Runs the invocations and waits until all of them are finished. */
+    public Result run() {
+        int threads = Math.max(1, holdMillis > 0 ? concurrency : Math.min(concurrency, invocations));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "load-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LatencyHistogram histogram = new LatencyHistogram();
+        AtomicInteger remaining = new AtomicInteger(invocations);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        AtomicReference<String> lastError = new AtomicReference<>();
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicLong deadline = new AtomicLong();
+
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    ready.countDown();
+                    go.await();
+                    while (holdMillis > 0 ? System.currentTimeMillis() < deadline.get()
+                            : remaining.getAndDecrement() > 0) {
+                        peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        long begin = System.nanoTime();
+                        try {
+                            int status = invoke();
+                            if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                                errors.incrementAndGet();
+                                lastError.set("HTTP status " + status);
+                            } else {
+                                histogram.record(System.nanoTime() - begin, TimeUnit.NANOSECONDS);
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                            lastError.set(e.getMessage());
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            ready.await();
+            start = System.currentTimeMillis();
+            deadline.set(start + holdMillis);
+            go.countDown();
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        Result result = new Result(histogram, errors.get(), lastError.get(), peak.get(),
+                System.currentTimeMillis() - start);
+        log.debug("Load on {}: {}", url, result);
+        return result;
+    }
+
+    /** Runs the invocations in the background. */
+    public CompletableFuture<Result> start() {
+        return CompletableFuture.supplyAsync(this::run);
+    }
+
+    /** Invokes the URL, reads the response and returns the status code. */
+    private int invoke() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        int status = connection.getResponseCode();
+        // read the body completely, so that the connection can be reused
+        try (InputStream in = status >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream()
+                : connection.getInputStream()) {
+            if (in != null) {
+                byte[] buffer = new byte[4096];
+                while (in.read(buffer) != -1) {
+                    // discard
+                }
+            }
+        }
+        return status;
+    }
+
+
+    /** The outcome of a {@link LoadGenerator#run()}. */
+    public static final class Result {
+
+        private final LatencyHistogram histogram;
+        private final long errors;
+        private final String lastError;
+        private final int peakConcurrency;
+        private final long elapsedMillis;
+
+        private Result(LatencyHistogram histogram, long errors, String lastError, int peakConcurrency,
+                long elapsedMillis) {
+            this.histogram = histogram;
+            this.errors = errors;
+            this.lastError = lastError;
+            this.peakConcurrency = peakConcurrency;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /** Returns the latencies of the successful invocations. */
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        /** Returns the number of failed invocations (I/O errors and HTTP status codes &gt;= 400). */
+        public long getErrors() {
+            return errors;
+        }
+
+        /** Returns the maximal number of invocations which were in flight at the same time. */
+        public int getPeakConcurrency() {
+            return peakConcurrency;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /** Throws an {@link IllegalStateException} if any invocation failed. */
+        public Result assertNoErrors() {
+            if (errors > 0) {
+                throw new IllegalStateException(errors + " invocations failed, last error: " + lastError);
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s, %d errors, peak concurrency %d, %d ms", histogram, errors, peakConcurrency,
+                    elapsedMillis);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Records where the time of each test is spent. Code which blocks the test (browser start, navigation, waits, sleeps,
+ * verifications, management operations and reloads) is wrapped in {@linkplain Span spans}:
+ * <pre>
+ * try (TestTimings.Span ignored = TestTimings.start(TestTimings.Category.WAIT)) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * <p>Nested spans are attributed exclusively: the time of an inner span is subtracted from the outer span. Spans of
+ * {@linkplain Category#isAbsorbing() absorbing} categories (e.g. a reload) include everything nested in them. The
+ * timings are collected per test, use {@link #startTest(String)} to switch to another test. Time spent outside of the
+ * test methods is recorded for the test class.</p>
+ */
+public final class TestTimings {
+
+    private static final String NO_TEST = "<no test>";
+    private static final Map<String, Timing> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+    private static final ThreadLocal<Span> active = new ThreadLocal<>();
+    private static final Span NOOP = new Span(null, null);
+    private static volatile String currentTest = NO_TEST;
+    private static volatile long testStart = System.nanoTime();
+
+    /** Finishes the current test and records subsequent spans for the specified test. */
+    public static void startTest(String test) {
+        long now = System.nanoTime();
+        timing(currentTest).addTotal(now - testStart);
+        currentTest = test != null ? test : NO_TEST;
+        testStart = now;
+    }
+
+    /** Starts a span for the specified category. Close the span to record its time. */
+    public static Span start(Category category) {
+        Span parent = active.get();
+        if (parent != null && parent.category.isAbsorbing()) {
+            return NOOP;
+        }
+        Span span = new Span(category, parent);
+        active.set(span);
+        return span;
+    }
+
+    /** Returns a copy of the timings collected so far per test. */
+    public static Map<String, Timing> timings() {
+        synchronized (timings) {
+            return new LinkedHashMap<>(timings);
+        }
+    }
+
+    /** Returns the specified number of tests which took longest. */
+    public static List<Map.Entry<String, Timing>> slowest(int count) {
+        List<Map.Entry<String, Timing>> entries = new ArrayList<>(timings().entrySet());
+        entries.sort((e1, e2) -> Long.compare(e2.getValue().getTotalMillis(), e1.getValue().getTotalMillis()));
+        return entries.subList(0, Math.min(count, entries.size()));
+    }
+
+    /** Writes the timings as CSV to the specified file. */
+    public static void exportCsv(Path file) throws IOException {
+        createParent(file);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("test,total-ms");
+            for (Category category : Category.values()) {
+                writer.write("," + category.getId() + "-ms");
+            }
+            writer.write(",other-ms\n");
+            for (Map.Entry<String, Timing> entry : timings().entrySet()) {
+                Timing timing = entry.getValue();
+                writer.write(entry.getKey() + "," + timing.getTotalMillis());
+                for (Category category : Category.values()) {
+                    writer.write("," + timing.getMillis(category));
+                }
+                writer.write("," + timing.getOtherMillis() + "\n");
+            }
+        }
+    }
+
+    /** Writes the timings as JSON to the specified file. */
+    public static void exportJson(Path file) throws IOException {
+        createParent(file);
+        Map<String, Map<String, Long>> json = new LinkedHashMap<>();
+        for (Map.Entry<String, Timing> entry : timings().entrySet()) {
+            json.put(entry.getKey(), entry.getValue().asMap());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), json);
+    }
+
+    /** Returns the specified number of slowest tests with the time per category, one test per line. */
+    public static String summary(int count) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Timing> entry : slowest(count)) {
+            builder.append(String.format("%n  %6d ms %s: %s", entry.getValue().getTotalMillis(), entry.getKey(),
+                    entry.getValue()));
+        }
+        return builder.toString();
+    }
+
+    /** Clears all timings. */
+    public static void reset() {
+        timings.clear();
+    }
+
+    private static Timing timing(String test) {
+        return timings.computeIfAbsent(test, t -> new Timing());
+    }
+
+    private static void createParent(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+    }
+
+    private TestTimings() {
+    }
+
+
+    public enum Category {
+        /** Starting browsers. */
+        BROWSER("browser", true),
+
+        /** Loading the console and changing places. */
+        NAVIGATION("navigation", false),
+
+        /** Waiting for the DOM. */
+        WAIT("wait", false),
+
+        /** Fixed sleeps. */
+        SLEEP("sleep", false),
+
+        /** Polling the management model until changes are propagated. */
+        VERIFICATION("verification", true),
+
+        /** Management operations. */
+        MANAGEMENT("management", false),
+
+        /** Reloading servers. */
+        RELOAD("reload", true);
+
+        private final String id;
+        private final boolean absorbing;
+
+        Category(String id, boolean absorbing) {
+            this.id = id;
+            this.absorbing = absorbing;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /** Whether spans nested in a span of this category are attributed to this category. */
+        public boolean isAbsorbing() {
+            return absorbing;
+        }
+    }
+
+
+    /** A running measurement. Closing the span records the time. */
+    public static class Span implements AutoCloseable {
+
+        private final Category category;
+        private final Span parent;
+        private final String test;
+        private final long start;
+        private long nestedNanos;
+
+        private Span(Category category, Span parent) {
+            this.category = category;
+            this.parent = parent;
+            this.test = currentTest;
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if (category == null) {
+                return;
+            }
+            long elapsed = System.nanoTime() - start;
+            timing(test).add(category, elapsed - nestedNanos);
+            if (parent != null) {
+                parent.nestedNanos += elapsed;
+                active.set(parent);
+            } else {
+                active.remove();
+            }
+        }
+    }
+
+
+    /** The time per category of one test. */
+    public static class Timing {
+
+        private final Map<Category, Long> nanos = new EnumMap<>(Category.class);
+        private long totalNanos;
+
+        synchronized void add(Category category, long nanos) {
+            this.nanos.merge(category, nanos, Long::sum);
+        }
+
+        synchronized void addTotal(long nanos) {
+            this.totalNanos += nanos;
+        }
+
+        /** Returns the time in ms between start and end of the test. */
+        public synchronized long getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalNanos);
+        }
+
+        public synchronized long getMillis(Category category) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos.getOrDefault(category, 0L));
+        }
+
+        /** Returns the time in ms not covered by any category. */
+        public synchronized long getOtherMillis() {
+            long covered = nanos.values().stream().mapToLong(Long::longValue).sum();
+            return Math.max(0, TimeUnit.NANOSECONDS.toMillis(totalNanos - covered));
+        }
+
+        synchronized Map<String, Long> asMap() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            map.put("total", getTotalMillis());
+            for (Category category : Category.values()) {
+                map.put(category.getId(), getMillis(category));
+            }
+            map.put("other", getOtherMillis());
+            return map;
+        }
+
+        @Override
+        public synchronized String toString() {
+            StringBuilder builder = new StringBuilder();
+            for (Category category : Category.values()) {
+                long millis = getMillis(category);
+                if (millis > 0) {
+                    builder.append(category.getId()).append(' ').append(millis).append(" ms, ");
+                }
+            }
+            return builder.append("other ").append(getOtherMillis()).append(" ms").toString();
+        }
+    }
+}
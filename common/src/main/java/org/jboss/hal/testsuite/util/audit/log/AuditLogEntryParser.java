@@ -1,7 +1,27 @@
 package org.jboss.hal.testsuite.util.audit.log;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 
 public interface AuditLogEntryParser {
+
     List<AuditLog.LogEntry> parse(String jsonString);
+
+    /**
+     * Parses the log entries from the specified stream. The default implementation reads the whole stream and
+     * delegates to {@link #parse(String)}. Implementations are encouraged to parse the entries lazily.
+     */
+    default Iterator<AuditLog.LogEntry> parse(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            content.write(buffer, 0, read);
+        }
+        return parse(new String(content.toByteArray(), StandardCharsets.UTF_8)).iterator();
+    }
 }
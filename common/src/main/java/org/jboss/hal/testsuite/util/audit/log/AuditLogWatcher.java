@@ -1,24 +1,45 @@
 package org.jboss.hal.testsuite.util.audit.log;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.validation.constraints.NotNull;
 
 /**
- * Represents an action to watch audit-log changes and provide changes of {@link AuditLog}.
+ * Tails the audit-log file and provides the newly written {@link AuditLog.LogEntry log entries}.
+ * <p>
+ * The watcher blocks on the {@link WatchService} until the file changes (or the poll interval elapses), reads only
+ * the bytes written since the last read and puts the entries parsed from these bytes onto the queue. Incomplete
+ * records are kept until the rest of the record has been written. If the file is truncated or rotated (replaced by a
+ * new file), the watcher starts again at the beginning of the file.
  */
 public class AuditLogWatcher implements Runnable {
 
+    private static final long DEFAULT_POLL_INTERVAL = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String RECORD_END = "}\n";
+
     /**
      * Path to audit-log file, which is being updated by server
      */
@@ -29,17 +50,41 @@ public class AuditLogWatcher implements Runnable {
     /**
      * Serves as a synchronization mechanism to provide changes created by server.
      */
-    private final BlockingQueue<AuditLog> auditLogQueue;
+    private final BlockingQueue<AuditLog.LogEntry> auditLogQueue;
+
+    /**
+     * Maximum time in milliseconds to block for file system events before checking the file anyway. Some file systems
+     * (e.g. mounted volumes) do not report all modifications.
+     */
+    private final long pollInterval;
 
     private final AtomicBoolean stop = new AtomicBoolean(false);
 
-    public AuditLogWatcher(@NotNull Path auditLogPath, @NotNull BlockingQueue<AuditLog> auditLogQueue, @NotNull AuditLogEntryParser parser) {
+    private final ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharBuffer charBuffer = CharBuffer.allocate(BUFFER_SIZE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final StringBuilder pending = new StringBuilder();
+
+    private FileChannel channel;
+    private Object fileKey;
+    private long position;
+
+    public AuditLogWatcher(@NotNull Path auditLogPath, @NotNull BlockingQueue<AuditLog.LogEntry> auditLogQueue,
+        @NotNull AuditLogEntryParser parser, long pollInterval) {
         this.auditLogPath = auditLogPath;
         this.auditLogQueue = auditLogQueue;
         this.logEntryParser = parser;
+        this.pollInterval = pollInterval;
+    }
+
+    public AuditLogWatcher(@NotNull Path auditLogPath, @NotNull BlockingQueue<AuditLog.LogEntry> auditLogQueue,
+        @NotNull AuditLogEntryParser parser) {
+        this(auditLogPath, auditLogQueue, parser, DEFAULT_POLL_INTERVAL);
     }
 
-    public AuditLogWatcher(@NotNull Path auditLogPath, @NotNull BlockingQueue<AuditLog> auditLogQueue) {
+    public AuditLogWatcher(@NotNull Path auditLogPath, @NotNull BlockingQueue<AuditLog.LogEntry> auditLogQueue) {
         this(auditLogPath, auditLogQueue, new NDJSONAuditLogEntryParser());
     }
 
@@ -53,47 +98,134 @@ public class AuditLogWatcher implements Runnable {
 
     @Override
     public void run() {
-        final File auditLogFile = auditLogPath.toFile();
-        final AuditLog auditLog = new AuditLog();
-        try {
-            RandomAccessFile randomAccessFile = new RandomAccessFile(auditLogFile, "r");
-            try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
-                Path parentFolder = auditLogPath.getParent();
-                if (parentFolder == null) {
-                    throw new RuntimeException("Cannot use WatchService on file without parent directory");
-                }
-                WatchKey watchKey = parentFolder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
-                    StandardWatchEventKinds.ENTRY_MODIFY);
-                while (!isStopped()) {
+        Path parentFolder = auditLogPath.toAbsolutePath().getParent();
+        if (parentFolder == null) {
+            throw new RuntimeException("Cannot use WatchService on file without parent directory");
+        }
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            parentFolder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            readNewContent();
+            while (!isStopped()) {
+                WatchKey watchKey = watchService.poll(pollInterval, TimeUnit.MILLISECONDS);
+                if (watchKey != null) {
+                    boolean relevant = false;
                     for (WatchEvent<?> event : watchKey.pollEvents()) {
                         Path changedFile = (Path) event.context();
-                        Path changedFileName = changedFile.getFileName();
-                        if (changedFileName == null) {
-                            continue;
-                        }
-                        if (changedFileName.equals(auditLogPath.getFileName())) {
-                            auditLog.addEntries(logEntryParser.parse(newContentToString(randomAccessFile)));
-                            auditLogQueue.put(auditLog);
-                        }
+                        relevant |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || (changedFile != null && auditLogPath.getFileName().equals(changedFile.getFileName()));
+                    }
+                    watchKey.reset();
+                    if (!relevant) {
+                        continue;
                     }
                 }
+                readNewContent();
             }
-        } catch (IOException | InterruptedException e) {
+        } catch (ClosedWatchServiceException e) {
+            // stopped from outside
+        } catch (IOException e) {
             throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeChannel();
+        }
+    }
+
+    /** Reads the bytes written since the last read and queues the complete log entries. */
+    private void readNewContent() throws IOException, InterruptedException {
+        if (!openChannel()) {
+            return;
+        }
+        long size = channel.size();
+        if (size < position) {
+            // file has been truncated
+            reset();
+        }
+        while (position < size) {
+            int read = channel.read(byteBuffer, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+            byteBuffer.flip();
+            decoder.decode(byteBuffer, charBuffer, false);
+            byteBuffer.compact(); // keeps incomplete multi byte characters
+            charBuffer.flip();
+            pending.append(charBuffer);
+            charBuffer.clear();
         }
+        queueCompleteRecords();
     }
 
-    private static String newContentToString(RandomAccessFile randomAccessFile) {
-        StringBuilder stringBuilder = new StringBuilder();
-        String line;
+    private void queueCompleteRecords() throws InterruptedException {
+        int end = lastRecordEnd();
+        if (end < 0) {
+            return;
+        }
+        String complete = pending.substring(0, end);
+        pending.delete(0, end);
+        List<AuditLog.LogEntry> entries = logEntryParser.parse(complete);
+        for (AuditLog.LogEntry entry : entries) {
+            auditLogQueue.put(entry);
+        }
+    }
+
+    /** Returns the index after the last line consisting of a single closing brace or -1. */
+    private int lastRecordEnd() {
+        int index = pending.lastIndexOf(RECORD_END);
+        while (index > 0 && pending.charAt(index - 1) != '\n') {
+            index = pending.lastIndexOf(RECORD_END, index - 1);
+        }
+        return index < 0 ? -1 : index + RECORD_END.length();
+    }
+
+    /**
+     * Opens the channel if necessary and detects whether the file has been replaced by a new file.
+     *
+     * @return {@code false} if the file does not exist (yet)
+     */
+    private boolean openChannel() throws IOException {
+        Object currentKey;
         try {
-            while ((line = randomAccessFile.readLine()) != null) {
-                stringBuilder.append(line);
-                stringBuilder.append('\n');
+            currentKey = Files.readAttributes(auditLogPath, BasicFileAttributes.class).fileKey();
+        } catch (NoSuchFileException e) {
+            closeChannel();
+            return false;
+        }
+        if (channel != null && currentKey != null && !Objects.equals(currentKey, fileKey)) {
+            // file has been rotated
+            closeChannel();
+        }
+        if (channel == null) {
+            try {
+                channel = FileChannel.open(auditLogPath, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                return false;
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            fileKey = currentKey;
+            reset();
         }
-        return stringBuilder.toString();
+        return true;
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // nothing to do
+            }
+            channel = null;
+        }
+    }
+
+    private void reset() {
+        position = 0;
+        pending.setLength(0);
+        byteBuffer.clear();
+        charBuffer.clear();
+        decoder.reset();
     }
 }
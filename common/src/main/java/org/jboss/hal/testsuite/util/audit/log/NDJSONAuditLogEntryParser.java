@@ -1,53 +1,151 @@
 package org.jboss.hal.testsuite.util.audit.log;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import org.jboss.hal.testsuite.util.audit.log.deserializer.LogEntryDeserializer;
 
+/**
+ * Streaming parser for the JSON formatted audit-log. The log entries are read one by one from the underlying stream
+ * using a shared, thread-safe {@link ObjectReader}.
+ * <p>
+ * If enabled, everything in front of a record (e.g. the date prefix written by a formatter with {@code
+ * include-date=true}) is skipped.
+ */
 public class NDJSONAuditLogEntryParser implements AuditLogEntryParser {
 
-    private final String dateFormatRegex;
-    private final String dateSeparatorRegex;
+    private static final ObjectReader LOG_ENTRY_READER;
 
-    public NDJSONAuditLogEntryParser(String dateFormatRegex, String dateSeparatorRegex) {
-        this.dateFormatRegex = dateFormatRegex;
-        this.dateSeparatorRegex = dateSeparatorRegex;
+    static {
+        SimpleModule deserializationModule = new SimpleModule();
+        deserializationModule.addDeserializer(AuditLog.LogEntry.class, new LogEntryDeserializer());
+        LOG_ENTRY_READER = new ObjectMapper()
+            .registerModule(deserializationModule)
+            .readerFor(AuditLog.LogEntry.class);
+    }
+
+    private final boolean skipRecordPrefix;
+
+    /**
+     * @param skipRecordPrefix whether to skip everything between two records, like a date prefix in front of
+     *                         each record
+     */
+    public NDJSONAuditLogEntryParser(boolean skipRecordPrefix) {
+        this.skipRecordPrefix = skipRecordPrefix;
     }
 
     public NDJSONAuditLogEntryParser() {
-        this("", "");
+        this(true);
     }
 
     @Override
     public List<AuditLog.LogEntry> parse(String jsonString) {
         List<AuditLog.LogEntry> result = new ArrayList<>();
-        String regex = "(^"
-            + dateFormatRegex
-            + dateSeparatorRegex
-            + Pattern.quote("{")
-            + "$.*?^"
-            + Pattern.quote("}")
-            + "$)";
-        Pattern pattern = Pattern.compile(regex, Pattern.MULTILINE | Pattern.DOTALL);
-        Matcher matcher = pattern.matcher(jsonString);
-        ObjectMapper mapper = new ObjectMapper();
-        SimpleModule deserializationModule = new SimpleModule();
-        deserializationModule.addDeserializer(AuditLog.LogEntry.class, new LogEntryDeserializer());
-        mapper.registerModule(deserializationModule);
         try {
-            while (matcher.find()) {
-                AuditLog.LogEntry logEntry = mapper.readValue(matcher.group(), AuditLog.LogEntry.class);
-                result.add(logEntry);
-            }
+            parse(new StringReader(jsonString)).forEachRemaining(result::add);
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new UncheckedIOException(e);
         }
         return result;
     }
+
+    /** Returns an iterator which parses the log entries lazily from the specified stream. */
+    @Override
+    public Iterator<AuditLog.LogEntry> parse(InputStream inputStream) throws IOException {
+        if (skipRecordPrefix) {
+            return parse(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        }
+        return LOG_ENTRY_READER.readValues(inputStream);
+    }
+
+    /** Returns an iterator which parses the log entries lazily from the specified channel. */
+    public Iterator<AuditLog.LogEntry> parse(ReadableByteChannel channel) throws IOException {
+        return parse(Channels.newInputStream(channel));
+    }
+
+    private Iterator<AuditLog.LogEntry> parse(Reader reader) throws IOException {
+        return LOG_ENTRY_READER.readValues(skipRecordPrefix ? new RecordPrefixSkippingReader(reader) : reader);
+    }
+
+
+    /**
+     * Drops all non-whitespace characters outside of JSON objects, so that only the records reach the JSON parser.
+     * Keeps track of the nesting level and of string literals, so braces inside values are handled properly.
+     */
+    private static class RecordPrefixSkippingReader extends Reader {
+
+        private final Reader delegate;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private int depth;
+        private boolean inString;
+        private boolean escaped;
+
+        RecordPrefixSkippingReader(Reader delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read(char[] chars, int offset, int length) throws IOException {
+            int count = 0;
+            while (count < length) {
+                if (position == limit) {
+                    if (count > 0) {
+                        break;
+                    }
+                    limit = delegate.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit < 0) {
+                        limit = 0;
+                        return -1;
+                    }
+                    continue;
+                }
+                char c = buffer[position++];
+                if (depth == 0 && c != '{' && !Character.isWhitespace(c)) {
+                    continue;
+                }
+                track(c);
+                chars[offset + count++] = c;
+            }
+            return count;
+        }
+
+        private void track(char c) {
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
 }
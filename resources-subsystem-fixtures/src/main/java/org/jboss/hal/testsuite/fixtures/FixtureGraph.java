@@ -0,0 +1,236 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.fixtures;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.dmr.ModelNode;
+import org.jgrapht.experimental.dag.DirectedAcyclicGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wildfly.extras.creaper.core.CommandFailedException;
+import org.wildfly.extras.creaper.core.online.ModelNodeResult;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+import org.wildfly.extras.creaper.core.online.operations.Batch;
+import org.wildfly.extras.creaper.core.online.operations.Operations;
+import org.wildfly.extras.creaper.core.online.operations.Values;
+
+/**
+ * Declarative set of resources a test needs. The resources are created in topological order using one composite
+ * operation and removed in reverse order using one composite operation.
+ *
+ * <p>A resource depends on its parent (if the parent is part of the graph as well) and on the resources specified in
+ * {@link Builder#add(Address, Values, Address...)}, e.g. a resource referencing a socket binding or a security
+ * realm.</p>
+ *
+ * <pre>
+ * private static final FixtureGraph fixtures = new FixtureGraph.Builder()
+ *         .add(sessionAddress(SESSION_UPDATE), Values.of(JNDI_NAME, Random.jndiName(SESSION_UPDATE)))
+ *         .add(serverAddress(SESSION_UPDATE, SMTP), Values.of(OUTBOUND_SOCKET_BINDING_REF, MAIL_SMTP))
+ *         .build();
+ *
+ * &#64;BeforeClass
+ * public static void beforeClass() throws Exception {
+ *     fixtures.create(client);
+ * }
+ *
+ * &#64;AfterClass
+ * public static void tearDown() throws Exception {
+ *     fixtures.remove(client);
+ * }
+ * </pre>
+ */
+public final class FixtureGraph {
+
+    private static final Logger log = LoggerFactory.getLogger(FixtureGraph.class);
+
+    private final Map<String, Address> addresses;
+    private final Map<String, Values> values;
+    private final List<String> order;
+    private final List<String> removalOrder;
+
+    private FixtureGraph(Builder builder) {
+        this.addresses = builder.addresses;
+        this.values = builder.values;
+        this.order = new ArrayList<>();
+        this.removalOrder = new ArrayList<>();
+
+        DirectedAcyclicGraph<String, DefaultEdge> graph = new DirectedAcyclicGraph<>(DefaultEdge.class);
+        builder.addresses.keySet().forEach(graph::addVertex);
+        builder.dependencies.forEach((resource, dependencies) -> {
+            for (String dependency : dependencies) {
+                if (graph.containsVertex(dependency)) {
+                    // throws an unchecked exception if graph becomes cyclic after adding
+                    graph.addEdge(dependency, resource);
+                }
+            }
+        });
+        graph.iterator().forEachRemaining(order::add); // topological order
+
+        // Children of removed resources are removed together with their topmost ancestor in the graph. Their
+        // dependencies are moved up to that ancestor, so that the ancestor is removed before the resources its
+        // children depend on.
+        DirectedAcyclicGraph<String, DefaultEdge> removalGraph = new DirectedAcyclicGraph<>(DefaultEdge.class);
+        for (String key : order) {
+            if (removalRoot(key).equals(key)) {
+                removalGraph.addVertex(key);
+            }
+        }
+        builder.dependencies.forEach((resource, dependencies) -> {
+            String resourceRoot = removalRoot(resource);
+            for (String dependency : dependencies) {
+                if (graph.containsVertex(dependency)) {
+                    String dependencyRoot = removalRoot(dependency);
+                    if (!dependencyRoot.equals(resourceRoot)) {
+                        removalGraph.addEdge(dependencyRoot, resourceRoot);
+                    }
+                }
+            }
+        });
+        removalGraph.iterator().forEachRemaining(removalOrder::add);
+        Collections.reverse(removalOrder);
+    }
+
+    /** Creates all resources using one composite operation. */
+    public void create(OnlineManagementClient client) throws IOException, CommandFailedException {
+        if (order.isEmpty()) {
+            return;
+        }
+        Batch batch = new Batch();
+        for (String key : order) {
+            batch.add(addresses.get(key), values.get(key));
+        }
+        ModelNodeResult result = new Operations(client).batch(batch);
+        if (!result.isSuccess()) {
+            throw new CommandFailedException("Unable to create fixtures " + order + ": "
+                    + result.getFailureDescription());
+        }
+        log.debug("Created {} fixtures using one composite operation", order.size());
+    }
+
+    /**
+     * Removes all resources in reverse order using one composite operation. If that fails (e.g. because a test
+     * already removed one of the resources), the remaining resources are removed one by one.
+     */
+    public void remove(OnlineManagementClient client) throws IOException, CommandFailedException {
+        List<Address> removals = removals();
+        if (removals.isEmpty()) {
+            return;
+        }
+        Operations operations = new Operations(client);
+        Batch batch = new Batch();
+        removals.forEach(batch::remove);
+        ModelNodeResult result = operations.batch(batch);
+        if (result.isSuccess()) {
+            log.debug("Removed {} fixtures using one composite operation", removals.size());
+            return;
+        }
+        log.debug("Unable to remove fixtures using one composite operation, remove them one by one: {}",
+                result.getFailureDescription());
+        for (Address address : removals) {
+            try {
+                operations.removeIfExists(address);
+            } catch (Exception e) {
+                throw new CommandFailedException("Unable to remove fixture " + address, e);
+            }
+        }
+    }
+
+    /** Returns the resources in the order they are created. */
+    List<Address> creationOrder() {
+        List<Address> creations = new ArrayList<>();
+        order.forEach(key -> creations.add(addresses.get(key)));
+        return creations;
+    }
+
+    /**
+     * Returns the resources to remove in reverse topological order. Children of removed resources are skipped, but
+     * their dependencies are kept for their topmost ancestor in the graph.
+     */
+    List<Address> removals() {
+        List<Address> removals = new ArrayList<>();
+        removalOrder.forEach(key -> removals.add(addresses.get(key)));
+        return removals;
+    }
+
+    /** Returns the topmost ancestor of the resource which is part of the graph or the resource itself. */
+    private String removalRoot(String key) {
+        String root = key;
+        for (String other : addresses.keySet()) {
+            if (key.startsWith(other + "/") && other.length() < root.length()) {
+                root = other;
+            }
+        }
+        return root;
+    }
+
+    private static String key(Address address) {
+        return address.toString();
+    }
+
+
+    public static final class Builder {
+
+        private final Map<String, Address> addresses = new LinkedHashMap<>();
+        private final Map<String, Values> values = new LinkedHashMap<>();
+        private final Map<String, List<String>> dependencies = new LinkedHashMap<>();
+
+        /** Adds a resource without attributes. */
+        public Builder add(Address address) {
+            return add(address, Values.empty());
+        }
+
+        /**
+         * Adds a resource which depends on the specified resources. The parent of the resource is added as
+         * dependency automatically.
+         */
+        public Builder add(Address address, Values attributes, Address... dependsOn) {
+            String key = key(address);
+            if (addresses.containsKey(key)) {
+                throw new IllegalArgumentException("Fixture " + address + " has been already added");
+            }
+            addresses.put(key, address);
+            values.put(key, attributes);
+
+            List<String> resourceDependencies = new ArrayList<>();
+            List<ModelNode> segments = address.toModelNode().asList();
+            if (segments.size() > 1) {
+                Address parent = Address.root();
+                for (ModelNode segment : segments.subList(0, segments.size() - 1)) {
+                    String type = segment.keys().iterator().next();
+                    parent = parent.and(type, segment.get(type).asString());
+                }
+                resourceDependencies.add(key(parent));
+            }
+            for (Address dependency : dependsOn) {
+                resourceDependencies.add(key(dependency));
+            }
+            dependencies.put(key, resourceDependencies);
+            return this;
+        }
+
+        public FixtureGraph build() {
+            return new FixtureGraph(this);
+        }
+    }
+}
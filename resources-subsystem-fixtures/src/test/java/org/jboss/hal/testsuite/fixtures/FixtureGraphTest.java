@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.hal.testsuite.fixtures;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.wildfly.extras.creaper.core.online.operations.Address;
+import org.wildfly.extras.creaper.core.online.operations.Values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FixtureGraphTest {
+
+    private static final Address SESSION = Address.subsystem("mail").and("mail-session", "session");
+    private static final Address SERVER = SESSION.and("server", "smtp");
+    private static final Address BINDING = Address.of("socket-binding-group", "standard-sockets")
+            .and("remote-destination-outbound-socket-binding", "smtp");
+    private static final Address REALM = Address.coreService("management").and("security-realm", "realm");
+
+    @Test
+    public void createsDependenciesFirst() {
+        // added in reverse order to make sure the order is not just the order of declaration
+        FixtureGraph graph = new FixtureGraph.Builder()
+                .add(SERVER, Values.empty(), BINDING, REALM)
+                .add(REALM)
+                .add(BINDING)
+                .add(SESSION)
+                .build();
+
+        List<Address> order = graph.creationOrder();
+        assertEquals(4, order.size());
+        assertBefore(order, SESSION, SERVER);
+        assertBefore(order, BINDING, SERVER);
+        assertBefore(order, REALM, SERVER);
+    }
+
+    @Test
+    public void removesDependentsFirst() {
+        Address reference = Address.subsystem("mail").and("mail-session", "other");
+        FixtureGraph graph = new FixtureGraph.Builder()
+                .add(reference, Values.empty(), BINDING, REALM)
+                .add(SERVER, Values.empty(), BINDING)
+                .add(REALM)
+                .add(BINDING)
+                .add(SESSION)
+                .build();
+
+        List<Address> removals = graph.removals();
+        assertFalse("Children of removed resources should be skipped", removals.contains(SERVER));
+        assertBefore(removals, reference, BINDING);
+        assertBefore(removals, reference, REALM);
+        assertBefore(removals, SESSION, BINDING);
+    }
+
+    private static void assertBefore(List<Address> order, Address first, Address second) {
+        assertTrue(first + " should come before " + second + " in " + order,
+                order.indexOf(first) >= 0 && order.indexOf(first) < order.indexOf(second));
+    }
+}
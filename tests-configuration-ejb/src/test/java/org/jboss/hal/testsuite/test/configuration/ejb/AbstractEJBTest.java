@@ -1,6 +1,7 @@
 package org.jboss.hal.testsuite.test.configuration.ejb;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import com.gwtplatform.mvp.shared.proxy.PlaceRequest;
 import org.jboss.hal.meta.token.NameTokens;
@@ -9,20 +10,16 @@ import org.jboss.hal.testsuite.Console;
 import org.jboss.hal.testsuite.Random;
 import org.jboss.hal.testsuite.creaper.ManagementClientProvider;
 import org.jboss.hal.testsuite.fragment.finder.ColumnFragment;
+import org.jboss.hal.testsuite.tooling.deployment.Deployment;
+import org.jboss.hal.testsuite.tooling.deployment.DeploymentOperations;
+import org.jboss.hal.testsuite.util.LoadGenerator;
 import org.jboss.hal.testsuite.util.ServerEnvironmentUtils;
-import org.jboss.shrinkwrap.api.ShrinkWrap;
-import org.jboss.shrinkwrap.api.asset.EmptyAsset;
-import org.jboss.shrinkwrap.api.exporter.ZipExporter;
-import org.jboss.shrinkwrap.api.spec.WebArchive;
 import org.junit.AfterClass;
-import org.wildfly.extras.creaper.commands.deployments.Deploy;
-import org.wildfly.extras.creaper.commands.deployments.Undeploy;
-import org.wildfly.extras.creaper.core.CommandFailedException;
 import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
 import org.wildfly.extras.creaper.core.online.operations.Address;
-import org.wildfly.extras.creaper.core.online.operations.OperationException;
 import org.wildfly.extras.creaper.core.online.operations.Operations;
 
+import static java.util.stream.Collectors.toList;
 import static org.jboss.hal.testsuite.fragment.finder.FinderFragment.runtimeSubsystemPath;
 
 public abstract class AbstractEJBTest {
@@ -37,11 +34,21 @@ public abstract class AbstractEJBTest {
         operations.writeAttribute(Address.subsystem("ejb3"), "statistics-enabled", true);
     }
 
-    private static void undeployIfExists(String deploymentName)
-        throws CommandFailedException, IOException, OperationException {
-        if (operations.exists(Address.deployment(deploymentName))) {
-            client.apply(new Undeploy.Builder(deploymentName).build());
-        }
+    protected static final DeploymentOperations deploymentOperations = new DeploymentOperations(client);
+
+    /** Deploys all EJB deployments in one composite operation and waits until they are up. */
+    protected static void deployAll(EJBDeployment... ejbDeployments) {
+        deploymentOperations.deployAll(Arrays.stream(ejbDeployments)
+            .map(EJBDeployment::toDeployment)
+            .collect(toList()))
+            .join();
+    }
+
+    protected static void undeployAll(EJBDeployment... ejbDeployments) {
+        deploymentOperations.undeployAll(Arrays.stream(ejbDeployments)
+            .map(EJBDeployment::getDeploymentName)
+            .collect(toList()))
+            .join();
     }
 
     @AfterClass
@@ -63,6 +70,21 @@ public abstract class AbstractEJBTest {
 
     protected abstract void invoke(int numberOfInvocations, EJBDeployment ejbDeployment);
 
+    /**
+     * Calls the servlet of the deployment {@code numberOfInvocations} times with up to {@code concurrency}
+     * invocations in flight at the same time.
+     */
+    protected static LoadGenerator.Result load(EJBDeployment ejbDeployment, String servlet, int numberOfInvocations,
+        int concurrency) {
+        String deploymentName = ejbDeployment.getDeploymentName().substring(0,
+            ejbDeployment.getDeploymentName().indexOf(".war"));
+        return new LoadGenerator("http://0.0.0.0:8080/" + deploymentName + "/" + servlet)
+            .invocations(numberOfInvocations)
+            .concurrency(concurrency)
+            .run()
+            .assertNoErrors();
+    }
+
     protected enum EJBType {
 
         STATELESS("stateless"),
@@ -95,19 +117,14 @@ public abstract class AbstractEJBTest {
             this.classesToBeDeployed = clazz;
         }
 
-        void deploy() throws CommandFailedException {
-            WebArchive deployment = ShrinkWrap.create(WebArchive.class, deploymentName)
-                .addClass(ejbClass)
-                .addClasses(classesToBeDeployed)
-                .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
-            Deploy deploy =
-                new Deploy.Builder(deployment.as(ZipExporter.class).exportAsInputStream(), deployment.getName(), true)
-                    .build();
-            client.apply(deploy);
-        }
-
-        void undeploy() throws OperationException, IOException, CommandFailedException {
-            undeployIfExists(deploymentName);
+        Deployment toDeployment() {
+            Deployment.Builder builder = new Deployment.Builder(deploymentName)
+                .classFile(ejbClass)
+                .textFile("WEB-INF/beans.xml", "");
+            for (Class<?> clazz : classesToBeDeployed) {
+                builder.classFile(clazz);
+            }
+            return builder.build();
         }
 
         String toColumnId() {
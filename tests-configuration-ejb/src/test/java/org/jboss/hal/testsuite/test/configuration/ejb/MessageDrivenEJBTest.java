@@ -1,14 +1,7 @@
 package org.jboss.hal.testsuite.test.configuration.ejb;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URISyntaxException;
-import java.net.URL;
-
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
+
 import org.jboss.arquillian.core.api.annotation.Inject;
 import org.jboss.arquillian.drone.api.annotation.Drone;
 import org.jboss.arquillian.graphene.page.Page;
@@ -34,8 +27,6 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.openqa.selenium.WebDriver;
-import org.wildfly.extras.creaper.core.CommandFailedException;
-import org.wildfly.extras.creaper.core.online.operations.OperationException;
 
 import static org.jboss.hal.testsuite.fixtures.EJBFixtures.ROLE_1;
 import static org.jboss.hal.testsuite.fixtures.EJBFixtures.ROLE_2;
@@ -81,22 +72,24 @@ public class MessageDrivenEJBTest extends AbstractEJBTest {
             MessageDrivenEJBExecutionTime.class, EJBType.MESSAGE_DRIVEN, MessageServletExecutionTime.class);
 
     @BeforeClass
-    public static void setUp() throws CommandFailedException, IOException {
+    public static void setUp() throws IOException {
         enableStatistics();
-        MESSAGE_DRIVEN_EJB_DEPLOYMENT.deploy();
-        MESSAGE_DRIVEN_EJB_WITH_ROLES_DEPLOYMENT.deploy();
-        MESSAGE_DRIVEN_EJB_INVOCATIONS_DEPLOYMENT.deploy();
-        MESSAGE_DRIVEN_EJB_EXECUTION_TIME_DEPLOYMENT.deploy();
-        MESSAGE_DRIVEN_EJB_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT.deploy();
+        deployAll(
+            MESSAGE_DRIVEN_EJB_DEPLOYMENT,
+            MESSAGE_DRIVEN_EJB_WITH_ROLES_DEPLOYMENT,
+            MESSAGE_DRIVEN_EJB_INVOCATIONS_DEPLOYMENT,
+            MESSAGE_DRIVEN_EJB_EXECUTION_TIME_DEPLOYMENT,
+            MESSAGE_DRIVEN_EJB_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT);
     }
 
     @AfterClass
-    public static void tearDown() throws IOException, CommandFailedException, OperationException {
-        MESSAGE_DRIVEN_EJB_DEPLOYMENT.undeploy();
-        MESSAGE_DRIVEN_EJB_WITH_ROLES_DEPLOYMENT.undeploy();
-        MESSAGE_DRIVEN_EJB_INVOCATIONS_DEPLOYMENT.undeploy();
-        MESSAGE_DRIVEN_EJB_EXECUTION_TIME_DEPLOYMENT.undeploy();
-        MESSAGE_DRIVEN_EJB_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT.undeploy();
+    public static void tearDown() {
+        undeployAll(
+            MESSAGE_DRIVEN_EJB_DEPLOYMENT,
+            MESSAGE_DRIVEN_EJB_WITH_ROLES_DEPLOYMENT,
+            MESSAGE_DRIVEN_EJB_INVOCATIONS_DEPLOYMENT,
+            MESSAGE_DRIVEN_EJB_EXECUTION_TIME_DEPLOYMENT,
+            MESSAGE_DRIVEN_EJB_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT);
     }
 
     @Inject
@@ -178,10 +171,8 @@ public class MessageDrivenEJBTest extends AbstractEJBTest {
     @Test
     public void verifyPeakConcurrentInvocations() throws Exception {
         int numberOfConcurrentInvocations = Random.number(2, 5);
-        Runnable invocationTask = () -> invoke(1, MESSAGE_DRIVEN_EJB_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT);
-        for (int i = 0; i < numberOfConcurrentInvocations; ++i) {
-            new Thread(invocationTask).start();
-        }
+        load(MESSAGE_DRIVEN_EJB_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT, "MessageDriven",
+            numberOfConcurrentInvocations, numberOfConcurrentInvocations);
         console.navigate(MESSAGE_DRIVEN_EJB_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT.getPlaceRequest());
         Assert.assertEquals("Number of peak concurrent invocations should be correct", numberOfConcurrentInvocations,
             page.getMessageDrivenBeanEJBForm().intValue("peak-concurrent-invocations"));
@@ -207,21 +198,6 @@ public class MessageDrivenEJBTest extends AbstractEJBTest {
 
     @Override
     protected void invoke(int numberOfInvocations, EJBDeployment ejbDeployment) {
-        String deploymentName = ejbDeployment.getDeploymentName().substring(0,
-            ejbDeployment.getDeploymentName().indexOf(".war"));
-        HttpGet httpGet;
-        try {
-            URL url = new URL("http://0.0.0.0:8080/" + deploymentName + "/MessageDriven");
-            httpGet = new HttpGet(url.toURI());
-        } catch (MalformedURLException | URISyntaxException e) {
-            throw new RuntimeException("Invalid URL", e);
-        }
-        try (CloseableHttpClient httpClient = HttpClientBuilder.create().build()) {
-            for (int i = 0; i < numberOfInvocations; ++i) {
-                EntityUtils.consumeQuietly(httpClient.execute(httpGet).getEntity());
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        load(ejbDeployment, "MessageDriven", numberOfInvocations, numberOfInvocations);
     }
 }
@@ -1,14 +1,7 @@
 package org.jboss.hal.testsuite.test.configuration.ejb;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URISyntaxException;
-import java.net.URL;
-
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
+
 import org.jboss.arquillian.core.api.annotation.Inject;
 import org.jboss.arquillian.drone.api.annotation.Drone;
 import org.jboss.arquillian.graphene.page.Page;
@@ -28,8 +21,6 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.openqa.selenium.WebDriver;
-import org.wildfly.extras.creaper.core.CommandFailedException;
-import org.wildfly.extras.creaper.core.online.operations.OperationException;
 
 import static org.jboss.hal.testsuite.fixtures.EJBFixtures.ROLE_1;
 import static org.jboss.hal.testsuite.fixtures.EJBFixtures.ROLE_2;
@@ -74,22 +65,24 @@ public class SingletonEJBTest extends AbstractEJBTest {
             SingletonServlet.class, RemoteEJBInterface.class);
 
     @BeforeClass
-    public static void setUp() throws CommandFailedException, IOException {
+    public static void setUp() throws IOException {
         enableStatistics();
-        SINGLETON_EJB_DEPLOYMENT.deploy();
-        SINGLETON_EJB_DEPLOYMENT_INVOCATIONS_DEPLOYMENT.deploy();
-        SINGLETON_EJB_DEPLOYMENT_EXECUTION_TIME_DEPLOYMENT.deploy();
-        SINGLETON_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT.deploy();
-        SINGLETON_EJB_DEPLOYMENT_WITH_ROLES_DEPLOYMENT.deploy();
+        deployAll(
+            SINGLETON_EJB_DEPLOYMENT,
+            SINGLETON_EJB_DEPLOYMENT_INVOCATIONS_DEPLOYMENT,
+            SINGLETON_EJB_DEPLOYMENT_EXECUTION_TIME_DEPLOYMENT,
+            SINGLETON_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT,
+            SINGLETON_EJB_DEPLOYMENT_WITH_ROLES_DEPLOYMENT);
     }
 
     @AfterClass
-    public static void tearDown() throws IOException, CommandFailedException, OperationException {
-        SINGLETON_EJB_DEPLOYMENT.undeploy();
-        SINGLETON_EJB_DEPLOYMENT_INVOCATIONS_DEPLOYMENT.undeploy();
-        SINGLETON_EJB_DEPLOYMENT_EXECUTION_TIME_DEPLOYMENT.undeploy();
-        SINGLETON_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT.undeploy();
-        SINGLETON_EJB_DEPLOYMENT_WITH_ROLES_DEPLOYMENT.undeploy();
+    public static void tearDown() {
+        undeployAll(
+            SINGLETON_EJB_DEPLOYMENT,
+            SINGLETON_EJB_DEPLOYMENT_INVOCATIONS_DEPLOYMENT,
+            SINGLETON_EJB_DEPLOYMENT_EXECUTION_TIME_DEPLOYMENT,
+            SINGLETON_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT,
+            SINGLETON_EJB_DEPLOYMENT_WITH_ROLES_DEPLOYMENT);
     }
 
     @Drone
@@ -166,10 +159,8 @@ public class SingletonEJBTest extends AbstractEJBTest {
     @Test
     public void verifyPeakConcurrentInvocations() throws Exception {
         int numberOfConcurrentInvocations = Random.number(2, 5);
-        Runnable invocationTask = () -> invoke(1, SINGLETON_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT);
-        for (int i = 0; i < numberOfConcurrentInvocations; ++i) {
-            new Thread(invocationTask).start();
-        }
+        load(SINGLETON_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT, "Singleton",
+            numberOfConcurrentInvocations, numberOfConcurrentInvocations);
         console.navigate(SINGLETON_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT.getPlaceRequest());
         Assert.assertEquals("Number of peak concurrent invocations should be correct", numberOfConcurrentInvocations,
             page.getSingletonEJBForm().intValue("peak-concurrent-invocations"));
@@ -193,21 +184,6 @@ public class SingletonEJBTest extends AbstractEJBTest {
 
     @Override
     protected void invoke(int numberOfInvocations, EJBDeployment ejbDeployment) {
-        String deploymentName = ejbDeployment.getDeploymentName().substring(0,
-            ejbDeployment.getDeploymentName().indexOf(".war"));
-        HttpGet httpGet;
-        try {
-            URL url = new URL("http://0.0.0.0:8080/" + deploymentName + "/Singleton");
-            httpGet = new HttpGet(url.toURI());
-        } catch (MalformedURLException | URISyntaxException e) {
-            throw new RuntimeException("Invalid URL", e);
-        }
-        try (CloseableHttpClient httpClient = HttpClientBuilder.create().build()) {
-            for (int i = 0; i < numberOfInvocations; ++i) {
-                EntityUtils.consumeQuietly(httpClient.execute(httpGet).getEntity());
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        load(ejbDeployment, "Singleton", numberOfInvocations, numberOfInvocations);
     }
 }
@@ -1,14 +1,7 @@
 package org.jboss.hal.testsuite.test.configuration.ejb;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URISyntaxException;
-import java.net.URL;
-
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
+
 import org.jboss.arquillian.core.api.annotation.Inject;
 import org.jboss.arquillian.drone.api.annotation.Drone;
 import org.jboss.arquillian.graphene.page.Page;
@@ -31,8 +24,6 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.openqa.selenium.WebDriver;
-import org.wildfly.extras.creaper.core.CommandFailedException;
-import org.wildfly.extras.creaper.core.online.operations.OperationException;
 
 import static org.jboss.hal.testsuite.fixtures.EJBFixtures.ROLE_1;
 import static org.jboss.hal.testsuite.fixtures.EJBFixtures.ROLE_2;
@@ -67,21 +58,23 @@ public class StatefulEJBTest extends AbstractEJBTest {
             StatefulServlet.class, RemoteEJBInterface.class);
 
     @BeforeClass
-    public static void setUp() throws CommandFailedException {
-        STATEFUL_EJB_DEPLOYMENT.deploy();
-        STATEFUL_EJB_DEPLOYMENT_EXECUTION_TIME_DEPLOYMENT.deploy();
-        STATEFUL_EJB_DEPLOYMENT_INVOCATIONS_DEPLOYMENT.deploy();
-        STATEFUL_EJB_DEPLOYMENT_WITH_ROLES_DEPLOYMENT.deploy();
-        STATEFUL_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT.deploy();
+    public static void setUp() {
+        deployAll(
+            STATEFUL_EJB_DEPLOYMENT,
+            STATEFUL_EJB_DEPLOYMENT_EXECUTION_TIME_DEPLOYMENT,
+            STATEFUL_EJB_DEPLOYMENT_INVOCATIONS_DEPLOYMENT,
+            STATEFUL_EJB_DEPLOYMENT_WITH_ROLES_DEPLOYMENT,
+            STATEFUL_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT);
     }
 
     @AfterClass
-    public static void tearDown() throws IOException, CommandFailedException, OperationException {
-        STATEFUL_EJB_DEPLOYMENT.undeploy();
-        STATEFUL_EJB_DEPLOYMENT_EXECUTION_TIME_DEPLOYMENT.undeploy();
-        STATEFUL_EJB_DEPLOYMENT_INVOCATIONS_DEPLOYMENT.undeploy();
-        STATEFUL_EJB_DEPLOYMENT_WITH_ROLES_DEPLOYMENT.undeploy();
-        STATEFUL_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT.undeploy();
+    public static void tearDown() {
+        undeployAll(
+            STATEFUL_EJB_DEPLOYMENT,
+            STATEFUL_EJB_DEPLOYMENT_EXECUTION_TIME_DEPLOYMENT,
+            STATEFUL_EJB_DEPLOYMENT_INVOCATIONS_DEPLOYMENT,
+            STATEFUL_EJB_DEPLOYMENT_WITH_ROLES_DEPLOYMENT,
+            STATEFUL_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT);
     }
 
     @Drone
@@ -160,10 +153,8 @@ public class StatefulEJBTest extends AbstractEJBTest {
     @Test
     public void verifyPeakConcurrentInvocations() throws Exception {
         int numberOfConcurrentInvocations = Random.number(2, 5);
-        Runnable invocationTask = () -> invoke(1, STATEFUL_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT);
-        for (int i = 0; i < numberOfConcurrentInvocations; ++i) {
-            new Thread(invocationTask).start();
-        }
+        load(STATEFUL_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT, "Stateful",
+            numberOfConcurrentInvocations, numberOfConcurrentInvocations);
         console.navigate(STATEFUL_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT.getPlaceRequest());
         Assert.assertEquals("Number of peak concurrent invocations should be correct", numberOfConcurrentInvocations,
             page.getStatefulEJBForm().intValue("peak-concurrent-invocations"));
@@ -187,21 +178,6 @@ public class StatefulEJBTest extends AbstractEJBTest {
 
     @Override
     protected void invoke(int numberOfInvocations, EJBDeployment ejbDeployment) {
-        String deploymentName = ejbDeployment.getDeploymentName().substring(0,
-            ejbDeployment.getDeploymentName().indexOf(".war"));
-        HttpGet httpGet;
-        try {
-            URL url = new URL("http://0.0.0.0:8080/" + deploymentName + "/Stateful");
-            httpGet = new HttpGet(url.toURI());
-        } catch (MalformedURLException | URISyntaxException e) {
-            throw new RuntimeException("Invalid URL", e);
-        }
-        try (CloseableHttpClient httpClient = HttpClientBuilder.create().build()) {
-            for (int i = 0; i < numberOfInvocations; ++i) {
-                EntityUtils.consumeQuietly(httpClient.execute(httpGet).getEntity());
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        load(ejbDeployment, "Stateful", numberOfInvocations, numberOfInvocations);
     }
 }
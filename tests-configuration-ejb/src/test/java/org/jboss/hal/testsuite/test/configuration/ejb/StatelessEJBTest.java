@@ -1,14 +1,7 @@
 package org.jboss.hal.testsuite.test.configuration.ejb;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URISyntaxException;
-import java.net.URL;
-
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
+
 import org.jboss.arquillian.core.api.annotation.Inject;
 import org.jboss.arquillian.graphene.page.Page;
 import org.jboss.arquillian.junit.Arquillian;
@@ -26,8 +19,6 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.wildfly.extras.creaper.core.CommandFailedException;
-import org.wildfly.extras.creaper.core.online.operations.OperationException;
 
 import static org.jboss.hal.testsuite.fixtures.EJBFixtures.ROLE_1;
 import static org.jboss.hal.testsuite.fixtures.EJBFixtures.ROLE_2;
@@ -72,22 +63,24 @@ public class StatelessEJBTest extends AbstractEJBTest {
             StatelessServlet.class, RemoteEJBInterface.class);
 
     @BeforeClass
-    public static void setUp() throws CommandFailedException, IOException {
+    public static void setUp() throws IOException {
         enableStatistics();
-        STATELESS_EJB_DEPLOYMENT.deploy();
-        STATELESS_EJB_DEPLOYMENT_INVOCATIONS_DEPLOYMENT.deploy();
-        STATELESS_EJB_DEPLOYMENT_EXECUTION_TIME_DEPLOYMENT.deploy();
-        STATELESS_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT.deploy();
-        STATELESS_EJB_DEPLOYMENT_WITH_ROLES_DEPLOYMENT.deploy();
+        deployAll(
+            STATELESS_EJB_DEPLOYMENT,
+            STATELESS_EJB_DEPLOYMENT_INVOCATIONS_DEPLOYMENT,
+            STATELESS_EJB_DEPLOYMENT_EXECUTION_TIME_DEPLOYMENT,
+            STATELESS_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT,
+            STATELESS_EJB_DEPLOYMENT_WITH_ROLES_DEPLOYMENT);
     }
 
     @AfterClass
-    public static void tearDown() throws OperationException, IOException, CommandFailedException {
-        STATELESS_EJB_DEPLOYMENT.undeploy();
-        STATELESS_EJB_DEPLOYMENT_INVOCATIONS_DEPLOYMENT.undeploy();
-        STATELESS_EJB_DEPLOYMENT_EXECUTION_TIME_DEPLOYMENT.undeploy();
-        STATELESS_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT.undeploy();
-        STATELESS_EJB_DEPLOYMENT_WITH_ROLES_DEPLOYMENT.undeploy();
+    public static void tearDown() {
+        undeployAll(
+            STATELESS_EJB_DEPLOYMENT,
+            STATELESS_EJB_DEPLOYMENT_INVOCATIONS_DEPLOYMENT,
+            STATELESS_EJB_DEPLOYMENT_EXECUTION_TIME_DEPLOYMENT,
+            STATELESS_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT,
+            STATELESS_EJB_DEPLOYMENT_WITH_ROLES_DEPLOYMENT);
     }
 
     @Page
@@ -162,10 +155,8 @@ public class StatelessEJBTest extends AbstractEJBTest {
     @Test
     public void verifyPeakConcurrentInvocations() throws Exception {
         int numberOfConcurrentInvocations = Random.number(2, 5);
-        Runnable invocationTask = () -> invoke(1, STATELESS_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT);
-        for (int i = 0; i < numberOfConcurrentInvocations; ++i) {
-            new Thread(invocationTask).start();
-        }
+        load(STATELESS_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT, "Stateless",
+            numberOfConcurrentInvocations, numberOfConcurrentInvocations);
         console.navigate(STATELESS_EJB_DEPLOYMENT_PEAK_CONCURRENT_INVOCATIONS_DEPLOYMENT.getPlaceRequest());
         Assert.assertEquals("Number of peak concurrent invocations should be correct", numberOfConcurrentInvocations,
             page.getStatelessEJBForm().intValue("peak-concurrent-invocations"));
@@ -189,21 +180,6 @@ public class StatelessEJBTest extends AbstractEJBTest {
 
     @Override
     protected void invoke(int numberOfInvocations, EJBDeployment ejbDeployment) {
-        String deploymentName = ejbDeployment.getDeploymentName().substring(0,
-            ejbDeployment.getDeploymentName().indexOf(".war"));
-        HttpGet httpGet;
-        try {
-            URL url = new URL("http://0.0.0.0:8080/" + deploymentName + "/Stateless");
-            httpGet = new HttpGet(url.toURI());
-        } catch (MalformedURLException | URISyntaxException e) {
-            throw new RuntimeException("Invalid URL", e);
-        }
-        try (CloseableHttpClient httpClient = HttpClientBuilder.create().build()) {
-            for (int i = 0; i < numberOfInvocations; ++i) {
-                EntityUtils.consumeQuietly(httpClient.execute(httpGet).getEntity());
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        load(ejbDeployment, "Stateless", numberOfInvocations, numberOfInvocations);
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package org.jboss.hal.testsuite.test.configuration.elytron.other.settings.logs;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Optional;
 
 import org.jboss.arquillian.core.api.annotation.Inject;
@@ -16,15 +17,11 @@ import org.jboss.hal.testsuite.creaper.ResourceVerifier;
 import org.jboss.hal.testsuite.dmr.ModelNodeGenerator;
 import org.jboss.hal.testsuite.fixtures.ElytronFixtures;
 import org.jboss.hal.testsuite.page.configuration.ElytronOtherSettingsPage;
-import org.jboss.shrinkwrap.api.exporter.ZipExporter;
-import org.jboss.shrinkwrap.api.spec.JavaArchive;
-import org.jboss.shrinkwrap.resolver.api.maven.embedded.EmbeddedMaven;
+import org.jboss.hal.testsuite.tooling.deployment.ArchiveCache;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
-import org.junit.ClassRule;
 import org.junit.Test;
-import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.openqa.selenium.WebDriver;
 import org.wildfly.extras.creaper.commands.modules.AddModule;
@@ -52,17 +49,12 @@ public class CustomSecurityEventListenerTest {
         "custom-security-event-listener-delete-" + Random.name();
     private static final String CLASS_NAME = "org.wildfly.security.examples.MySecurityEventListener";
 
-    @ClassRule
-    public static TemporaryFolder temporaryFolder = new TemporaryFolder();
-
     @BeforeClass
     public static void setUp() throws IOException, CommandFailedException {
         System.setProperty("jboss.home.dir", Optional.ofNullable(System.getenv("JBOSS_HOME")).orElseThrow(() -> new RuntimeException("JBOSS_HOME variable not set")));
-        JavaArchive archive = EmbeddedMaven.forProject(
-            CustomSecurityEventListenerTest.class.getResource("custom-security-event-listener/pom.xml").getFile())
-            .setGoals("package").setBatchMode(true).build().getDefaultBuiltArchive().as(JavaArchive.class);
-        File archiveFile = temporaryFolder.newFile(archive.getName());
-        archive.as(ZipExporter.class).exportTo(archiveFile, true);
+        File archiveFile = ArchiveCache.maven(new File(
+            CustomSecurityEventListenerTest.class.getResource("custom-security-event-listener/pom.xml").getFile()),
+            Collections.emptyMap());
         AddModule addModule = new AddModule.Builder(CUSTOM_SECURITY_EVENT_LISTENER_MODULE_NAME)
             .dependency("org.wildfly.security.elytron")
             .resource(archiveFile)
@@ -5,6 +5,7 @@ import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.hal.meta.token.NameTokens;
 import org.jboss.hal.resources.Ids;
 import org.jboss.hal.testsuite.Random;
+import org.jboss.hal.testsuite.creaper.ReloadCoordinator;
 import org.jboss.hal.testsuite.creaper.ResourceVerifier;
 import org.jboss.hal.testsuite.creaper.command.RemoveSocketBinding;
 import org.jboss.hal.testsuite.fragment.AddResourceDialogFragment;
@@ -40,7 +41,7 @@ public class RemoteCacheContainerFinderTest extends AbstractRemoteCacheContainer
         createRemoteSocketBinding(REMOTE_SOCKET_BINDING_DELETE);
         createRemoteCacheContainer(REMOTE_CC_READ, REMOTE_SOCKET_BINDING_READ);
         createRemoteCacheContainer(REMOTE_CC_DELETE, REMOTE_SOCKET_BINDING_DELETE);
-        administration.reloadIfRequired();
+        ReloadCoordinator.reloadLater();
     }
 
     @AfterClass
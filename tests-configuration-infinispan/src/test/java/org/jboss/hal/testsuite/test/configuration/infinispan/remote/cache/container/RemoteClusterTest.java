@@ -6,6 +6,7 @@ import java.util.concurrent.TimeoutException;
 
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.hal.testsuite.Random;
+import org.jboss.hal.testsuite.creaper.ReloadCoordinator;
 import org.jboss.hal.testsuite.creaper.command.RemoveSocketBinding;
 import org.jboss.hal.testsuite.dmr.ModelNodeGenerator;
 import org.junit.AfterClass;
@@ -48,7 +49,7 @@ public class RemoteClusterTest extends AbstractRemoteCacheContainerTest {
         createRemoteCluster(REMOTE_CACHE_CONTAINER_TO_BE_TESTED, REMOTE_CLUSTER, REMOTE_SOCKET_BINDING);
         createRemoteCluster(REMOTE_CACHE_CONTAINER_TO_BE_TESTED, REMOTE_CLUSTER_DELETE,
             REMOTE_SOCKET_BINDING_CLUSTER_DELETE);
-        administration.reloadIfRequired();
+        ReloadCoordinator.reloadLater();
     }
 
     private static void createRemoteCluster(String remoteCacheContainerName, String remoteClusterName,
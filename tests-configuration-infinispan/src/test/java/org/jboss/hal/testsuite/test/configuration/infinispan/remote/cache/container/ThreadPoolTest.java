@@ -5,6 +5,7 @@ import java.util.concurrent.TimeoutException;
 
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.hal.testsuite.Random;
+import org.jboss.hal.testsuite.creaper.ReloadCoordinator;
 import org.jboss.hal.testsuite.creaper.command.RemoveSocketBinding;
 import org.jboss.hal.testsuite.dmr.ModelNodeGenerator;
 import org.junit.AfterClass;
@@ -39,7 +40,7 @@ public class ThreadPoolTest extends AbstractRemoteCacheContainerTest {
         operations.add(remoteClusterAddress(REMOTE_CACHE_CONTAINER_TO_BE_TESTED, REMOTE_CLUSTER),
             Values.of(SOCKET_BINDINGS,
                 new ModelNodeGenerator.ModelNodeListBuilder().addAll(REMOTE_SOCKET_BINDING_CLUSTER).build()));
-        administration.reloadIfRequired();
+        ReloadCoordinator.reloadLater();
     }
 
     @AfterClass
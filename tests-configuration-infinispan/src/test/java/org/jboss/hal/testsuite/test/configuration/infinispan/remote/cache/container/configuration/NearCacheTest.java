@@ -6,6 +6,7 @@ import java.util.concurrent.TimeoutException;
 import org.jboss.arquillian.graphene.findby.ByJQuery;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.hal.testsuite.Random;
+import org.jboss.hal.testsuite.creaper.ReloadCoordinator;
 import org.jboss.hal.testsuite.creaper.ResourceVerifier;
 import org.jboss.hal.testsuite.creaper.command.RemoveSocketBinding;
 import org.jboss.hal.testsuite.dmr.ModelNodeGenerator;
@@ -55,7 +56,7 @@ public class NearCacheTest extends AbstractRemoteCacheContainerTest {
         createRemoteCacheContainer(REMOTE_CACHE_CONTAINER_NEAR_CACHE_EDIT, REMOTE_SOCKET_BINDING_NEAR_CACHE_EDIT, true);
         createRemoteCacheContainer(REMOTE_CACHE_CONTAINER_NEAR_CACHE_DELETE, REMOTE_SOCKET_BINDING_NEAR_CACHE_DELETE,
             true);
-        administration.reloadIfRequired();
+        ReloadCoordinator.reloadLater();
     }
 
     private static void createRemoteCacheContainer(String name, String socketBinding, boolean shouldCreateNearCache)
@@ -5,12 +5,11 @@ import java.io.IOException;
 
 import org.jboss.arquillian.core.api.annotation.Inject;
 import org.jboss.arquillian.drone.api.annotation.Drone;
-import org.jboss.arquillian.drone.api.annotation.lifecycle.MethodLifecycle;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.dmr.ModelNode;
 import org.jboss.hal.meta.token.NameTokens;
 import org.jboss.hal.testsuite.Console;
-import org.jboss.hal.testsuite.DeploymentDrone;
+import org.jboss.hal.testsuite.DeploymentClient;
 import org.jboss.hal.testsuite.Random;
 import org.jboss.hal.testsuite.creaper.ManagementClientProvider;
 import org.jboss.hal.testsuite.dmr.ModelNodeGenerator;
@@ -96,14 +95,12 @@ public class ViewLogFromLoggingProfileTest {
     @Drone
     private WebDriver browser;
 
-    @Drone
-    @DeploymentDrone
-    @MethodLifecycle
-    private WebDriver deploymentBrowser;
-
     @Inject
     private Console console;
 
+    @Inject
+    private DeploymentClient deploymentClient;
+
     private FinderFragment finder;
 
     private ColumnFragment column;
@@ -143,7 +140,7 @@ public class ViewLogFromLoggingProfileTest {
 
     @Test
     public void verifyLoggingProfileIsInPreview() throws IOException {
-        deploymentBrowser.get(deploymentUrl);
+        deploymentClient.get(deploymentUrl);
         getColumn();
         column.selectItem(logFileItemId(LOG_FILE));
         LogFilePreviewFragment logFilePreview = finder.preview(LogFilePreviewFragment.class);
@@ -24,6 +24,7 @@ import org.jboss.hal.testsuite.Console;
 import org.jboss.hal.testsuite.Random;
 import org.jboss.hal.testsuite.creaper.ManagementClientProvider;
 import org.jboss.hal.testsuite.creaper.ResourceVerifier;
+import org.jboss.hal.testsuite.fixtures.FixtureGraph;
 import org.jboss.hal.testsuite.fragment.AddResourceDialogFragment;
 import org.jboss.hal.testsuite.fragment.finder.ColumnFragment;
 import org.jboss.hal.testsuite.page.Places;
@@ -51,18 +52,20 @@ public class MailSessionFinderTest {
 
     private static final OnlineManagementClient client = ManagementClientProvider.createOnlineManagementClient();
     private static final Operations operations = new Operations(client);
+    private static final FixtureGraph fixtures = new FixtureGraph.Builder()
+            .add(sessionAddress(SESSION_READ), Values.of(JNDI_NAME, Random.jndiName(SESSION_READ)))
+            .add(sessionAddress(SESSION_DELETE), Values.of(JNDI_NAME, Random.jndiName(SESSION_DELETE)))
+            .build();
 
     @BeforeClass
     public static void beforeClass() throws Exception {
-        operations.add(sessionAddress(SESSION_READ), Values.of(JNDI_NAME, Random.jndiName(SESSION_READ)));
-        operations.add(sessionAddress(SESSION_DELETE), Values.of(JNDI_NAME, Random.jndiName(SESSION_DELETE)));
+        fixtures.create(client);
     }
 
     @AfterClass
     public static void tearDown() throws Exception {
         operations.removeIfExists(sessionAddress(SESSION_CREATE));
-        operations.removeIfExists(sessionAddress(SESSION_READ));
-        operations.removeIfExists(sessionAddress(SESSION_DELETE));
+        fixtures.remove(client);
     }
 
     @Inject private Console console;
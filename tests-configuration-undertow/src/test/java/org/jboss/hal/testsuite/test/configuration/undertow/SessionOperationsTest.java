@@ -10,13 +10,12 @@ import java.util.stream.Collectors;
 
 import org.jboss.arquillian.core.api.annotation.Inject;
 import org.jboss.arquillian.drone.api.annotation.Drone;
-import org.jboss.arquillian.drone.api.annotation.lifecycle.MethodLifecycle;
 import org.jboss.arquillian.graphene.findby.ByJQuery;
 import org.jboss.arquillian.graphene.page.Page;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.dmr.ModelNode;
 import org.jboss.hal.testsuite.Console;
-import org.jboss.hal.testsuite.DeploymentDrone;
+import org.jboss.hal.testsuite.DeploymentClient;
 import org.jboss.hal.testsuite.Random;
 import org.jboss.hal.testsuite.creaper.ManagementClientProvider;
 import org.jboss.hal.testsuite.fixtures.undertow.UndertowFixtures;
@@ -49,7 +48,7 @@ public class SessionOperationsTest {
     private static final String DEPLOYMENT_NAME = "sample-demo-app-" + Random.name();
     private static final String ARCHIVE_NAME = DEPLOYMENT_NAME + ".war";
     private static final String DEPLOYMENT_URL =
-        "http:" + System.getProperty("as.managementAddress", "localhost") + ":8080/" + DEPLOYMENT_NAME;
+        "http://" + System.getProperty("as.managementAddress", "localhost") + ":8080/" + DEPLOYMENT_NAME;
     private static final Address UNDERTOW_RUNTIME_ADDRESS = Address.deployment(ARCHIVE_NAME).and("subsystem", "undertow");
 
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("MMM d, yyyy, h:mm:ss a");
@@ -105,14 +104,12 @@ public class SessionOperationsTest {
     @Drone
     private WebDriver browser;
 
-    @Drone
-    @DeploymentDrone
-    @MethodLifecycle
-    private WebDriver deploymentBrowser;
-
     @Inject
     private Console console;
 
+    @Inject
+    private DeploymentClient deploymentClient;
+
     @Page
     private UndertowRuntimePage page;
 
@@ -150,7 +147,7 @@ public class SessionOperationsTest {
         Assert.assertTrue("No sessions should be present in the model before accessing the deployment",
             getSessionsFromModel()
                 .isEmpty());
-        deploymentBrowser.get(DEPLOYMENT_URL);
+        deploymentClient.get(DEPLOYMENT_URL);
         reloadSessions();
         Assert.assertFalse("A session should be present in the model after accessing the deployment",
             getSessionsFromModel()
@@ -162,7 +159,7 @@ public class SessionOperationsTest {
 
     @Test
     public void invalidateSession() throws IOException {
-        deploymentBrowser.get(DEPLOYMENT_URL);
+        deploymentClient.get(DEPLOYMENT_URL);
         navigateToDeploymentRuntime();
         reloadSessions();
         Assert.assertFalse("Session should be present in the model", getSessionsFromModel().isEmpty());
@@ -180,7 +177,7 @@ public class SessionOperationsTest {
 
     @Test
     public void verifyAttributes() throws IOException {
-        deploymentBrowser.get(DEPLOYMENT_URL);
+        deploymentClient.get(DEPLOYMENT_URL);
         navigateToDeploymentRuntime();
         reloadSessions();
         Assert.assertFalse("Session should be present in the model", getSessionsFromModel().isEmpty());
@@ -199,7 +196,7 @@ public class SessionOperationsTest {
     public void verifyCreationTime() throws IOException {
         navigateToDeploymentRuntime();
         long creationTimeInMillis = System.currentTimeMillis();
-        deploymentBrowser.get(DEPLOYMENT_URL);
+        deploymentClient.get(DEPLOYMENT_URL);
         reloadSessions();
         String sessionId = getSessionsFromModel().get(0);
         page.getSessionsTable().select(sessionId);
@@ -214,14 +211,14 @@ public class SessionOperationsTest {
     @Test
     public void verifyLastAccessedTime() throws IOException, InterruptedException {
         navigateToDeploymentRuntime();
-        deploymentBrowser.get(DEPLOYMENT_URL);
+        deploymentClient.get(DEPLOYMENT_URL);
         reloadSessions();
         String sessionId = getSessionsFromModel().get(0);
         page.getSessionsTable().select(sessionId);
         long start = System.currentTimeMillis();
         long end = start + TimeUnit.MINUTES.toMillis(1);
         TimeUnit.MINUTES.sleep(1);
-        deploymentBrowser.findElement(By.cssSelector("input[value=\"Increment\"")).click();
+        deploymentClient.browser().findElement(By.cssSelector("input[value=\"Increment\"")).click();
         reloadSessions();
         List<WebElement> selectedRowColumns = page.getSessionsTable().getRoot().findElements(By.cssSelector("tr.selected > td"));
         String lastAccessedTime = selectedRowColumns.get(2).getText();
@@ -0,0 +1,339 @@
+package org.jboss.hal.testsuite.tooling.deployment;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jboss.hal.testsuite.util.ConfigUtils;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.exporter.ZipExporter;
+import org.jboss.shrinkwrap.resolver.api.maven.embedded.EmbeddedMaven;
+import org.jboss.shrinkwrap.resolver.api.maven.embedded.pom.equipped.PomEquippedEmbeddedMaven;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content addressed cache for deployment archives. Archives are stored as {@code <hash>/<archive name>} in the
+ * directory specified by {@code deployment.cache.dir} (defaults to {@code hal-testsuite-archives} in {@code
+ * java.io.tmpdir}), so they are shared between test classes, modules and runs.
+ * <ul>
+ * <li>{@link #export(Archive)} hashes the content of a ShrinkWrap archive (but not its name, which is random for most
+ * deployments) and exports it only if there's no archive with the same content yet. The cached archive is linked or
+ * copied to a temporary file with the requested name, which is deleted on exit.</li>
+ * <li>{@link #maven(File, Map)} hashes the Maven project (all files next to the pom except {@code target}) and the
+ * properties and runs the embedded Maven build only if there's no archive for this input yet. Don't use it for
+ * builds with random properties, they never hit the cache.</li>
+ * </ul>
+ * Entries which have not been used for {@code deployment.cache.max.age} days (defaults to 7) are deleted once per JVM.
+ * If the cache is still larger than {@code deployment.cache.max.size} MB (defaults to 500), the least recently used
+ * entries are deleted as well. Set {@code deployment.cache} to {@code false} to always build the archives.
+ */
+public final class ArchiveCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveCache.class);
+    private static final boolean ENABLED = Boolean.parseBoolean(ConfigUtils.get("deployment.cache", "true"));
+    private static final Path DIRECTORY = Paths.get(ConfigUtils.get("deployment.cache.dir",
+            Paths.get(System.getProperty("java.io.tmpdir"), "hal-testsuite-archives").toString()));
+    private static final String BUILD_MILLIS = "build-millis";
+    private static final String TARGET = "target";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String CONTENT = "content";
+    private static final long MAX_AGE = TimeUnit.DAYS.toMillis(
+            Long.parseLong(ConfigUtils.get("deployment.cache.max.age", "7")));
+    private static final long MAX_SIZE = Long.parseLong(ConfigUtils.get("deployment.cache.max.size", "500"))
+            * 1024 * 1024;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong savedMillis = new AtomicLong();
+    private static Path exportDirectory;
+
+    static {
+        cleanUp();
+    }
+
+    /**
+     * Returns a zip file with the content and the name of the archive. Don't modify the file! It is deleted on
+     * exit.
+     */
+    public static File export(Archive<?> archive) {
+        MessageDigest digest = digest();
+        Map<String, Node> nodes = new TreeMap<>();
+        for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+            nodes.put(entry.getKey().get(), entry.getValue());
+        }
+        for (Map.Entry<String, Node> entry : nodes.entrySet()) {
+            update(digest, entry.getKey());
+            if (entry.getValue().getAsset() != null) {
+                try (InputStream in = entry.getValue().getAsset().openStream()) {
+                    update(digest, in);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        File content = cached(hex(digest), CONTENT, target -> {
+            archive.as(ZipExporter.class).exportTo(target.toFile(), true);
+            return CONTENT;
+        });
+        return materialize(content.toPath(), archive.getName());
+    }
+
+    /**
+     * Builds the Maven project using {@code mvn package} and returns the default archive. Don't modify or delete the
+     * file!
+     */
+    public static File maven(File pom, Map<String, String> properties) {
+        Path project = pom.toPath().toAbsolutePath().getParent();
+        MessageDigest digest = digest();
+        new TreeMap<>(properties).forEach((name, value) -> update(digest, name + "=" + value));
+        try (Stream<Path> files = Files.walk(project)) {
+            List<Path> sorted = files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !project.relativize(file).startsWith(TARGET))
+                    .sorted()
+                    .collect(Collectors.toList());
+            for (Path file : sorted) {
+                update(digest, project.relativize(file).toString());
+                try (InputStream in = Files.newInputStream(file)) {
+                    update(digest, in);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String hash = hex(digest);
+        return cached(hash, existingName(hash), target -> {
+            Archive<?> archive = build(pom, properties);
+            archive.as(ZipExporter.class).exportTo(target.toFile(), true);
+            return archive.getName();
+        });
+    }
+
+    /** Like {@link #maven(File, Map)}, but returns the archive as the specified type. */
+    public static <T extends Archive<T>> T maven(Class<T> type, File pom, Map<String, String> properties) {
+        return ShrinkWrap.createFromZipFile(type, maven(pom, properties));
+    }
+
+    /** Links or copies the cached file to a temporary file with the specified name. */
+    private static synchronized File materialize(Path cached, String name) {
+        try {
+            if (exportDirectory == null) {
+                exportDirectory = Files.createTempDirectory("hal-testsuite-deployments");
+                exportDirectory.toFile().deleteOnExit();
+            }
+            Path file = exportDirectory.resolve(name);
+            Files.deleteIfExists(file);
+            try {
+                Files.createLink(file, cached);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(cached, file);
+            }
+            file.toFile().deleteOnExit();
+            return file.toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Archive<?> build(File pom, Map<String, String> properties) {
+        PomEquippedEmbeddedMaven maven = EmbeddedMaven.forProject(pom);
+        properties.forEach(maven::addProperty);
+        return maven.setGoals("package").setBatchMode(true).build().getDefaultBuiltArchive();
+    }
+
+    /**
+     * Returns the cached file or builds it. The builder writes to a temporary file which is moved atomically, so
+     * concurrent builds (e.g. from several forks) don't see incomplete archives.
+     */
+    private static File cached(String hash, String name, Builder builder) {
+        Path directory = DIRECTORY.resolve(hash);
+        if (ENABLED && name != null && Files.isRegularFile(directory.resolve(name))) {
+            long saved = buildMillis(directory);
+            hits.incrementAndGet();
+            savedMillis.addAndGet(saved);
+            log.info("Use cached archive {} ({} ms saved)", directory.resolve(name), saved);
+            touch(directory);
+            return directory.resolve(name).toFile();
+        }
+        misses.incrementAndGet();
+        long start = System.currentTimeMillis();
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "archive", TEMP_SUFFIX);
+            Path file = directory.resolve(builder.build(temp));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long millis = System.currentTimeMillis() - start;
+            Files.write(directory.resolve(BUILD_MILLIS), String.valueOf(millis).getBytes(StandardCharsets.UTF_8));
+            log.debug("Built archive {} in {} ms", file, millis);
+            return file.toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Returns the name of the archive already cached under the hash or null. */
+    private static String existingName(String hash) {
+        Path directory = DIRECTORY.resolve(hash);
+        if (!ENABLED || !Files.isDirectory(directory)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> !name.equals(BUILD_MILLIS) && !name.endsWith(TEMP_SUFFIX))
+                    .findFirst()
+                    .orElse(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Deletes entries older than {@link #MAX_AGE} and the least recently used entries above {@link #MAX_SIZE}. */
+    private static void cleanUp() {
+        if (!Files.isDirectory(DIRECTORY)) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(DIRECTORY)) {
+            List<Path> sorted = entries.filter(Files::isDirectory)
+                    .sorted(Comparator.comparingLong(ArchiveCache::lastModified).reversed())
+                    .collect(Collectors.toList());
+            long now = System.currentTimeMillis();
+            long size = 0;
+            for (Path entry : sorted) {
+                long entrySize = size(entry);
+                long age = now - lastModified(entry);
+                // entries used in the last minute might be in use by another fork
+                if (age > MAX_AGE || (size + entrySize > MAX_SIZE && age > TimeUnit.MINUTES.toMillis(1))) {
+                    delete(entry);
+                } else {
+                    size += entrySize;
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Unable to clean up archive cache {}: {}", DIRECTORY, e.getMessage());
+        }
+    }
+
+    private static void touch(Path directory) {
+        try {
+            Files.setLastModifiedTime(directory, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Unable to touch {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long size(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            List<Path> paths = files.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        }
+        log.debug("Deleted cached archive {}", directory);
+    }
+
+    private static long buildMillis(Path directory) {
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(directory.resolve(BUILD_MILLIS)),
+                    StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static void update(MessageDigest digest, InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        digest.update((byte) 0);
+    }
+
+    private static String hex(MessageDigest digest) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b : Arrays.copyOf(digest.digest(), 16)) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+
+    // ------------------------------------------------------ statistics
+
+    public static long hits() {
+        return hits.get();
+    }
+
+    public static long misses() {
+        return misses.get();
+    }
+
+    /** Returns the time in ms the cached archives took to build. */
+    public static long savedMillis() {
+        return savedMillis.get();
+    }
+
+    public static String summary() {
+        return String.format("%d hits, %d misses, %d ms build time saved", hits(), misses(), savedMillis());
+    }
+
+    private ArchiveCache() {
+    }
+
+
+    @FunctionalInterface
+    private interface Builder {
+
+        /** Writes the archive to the target and returns the name of the archive. */
+        String build(Path target) throws IOException;
+    }
+}
@@ -0,0 +1,24 @@
+package org.jboss.hal.testsuite.tooling.deployment;
+
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.core.spi.LoadableExtension;
+import org.jboss.arquillian.test.spi.event.suite.AfterSuite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Logs the hits and the saved build time of the {@link ArchiveCache} once the suite has finished. */
+public class ArchiveCacheReporter implements LoadableExtension {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveCacheReporter.class);
+
+    @Override
+    public void register(ExtensionBuilder builder) {
+        builder.observer(ArchiveCacheReporter.class);
+    }
+
+    public void report(@Observes AfterSuite event) {
+        if (ArchiveCache.hits() + ArchiveCache.misses() > 0) {
+            log.info("Deployment archives: {}", ArchiveCache.summary());
+        }
+    }
+}
@@ -28,12 +28,9 @@ public class Deployment {
         builder.classes.forEach(clazz -> ((WebArchive)archive).addClass(clazz));
     }
 
+    /** Returns the exported archive from the {@link ArchiveCache}. Don't modify or delete the file! */
     public File getDeploymentFile() {
-        String tmpDirPath = System.getProperty("java.io.tmpdir");
-        File deploymentFile = new File(tmpDirPath, archive.getName());
-        deploymentFile.deleteOnExit();
-        archive.as(ZipExporter.class).exportTo(deploymentFile, true);
-        return deploymentFile;
+        return ArchiveCache.export(archive);
     }
 
     public String getName() {
@@ -1,10 +1,18 @@
 package org.jboss.hal.testsuite.tooling.deployment;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.jboss.dmr.ModelNode;
 import org.jboss.hal.testsuite.dmr.ModelNodeGenerator.ModelNodePropertiesBuilder;
@@ -12,13 +20,22 @@ import org.jboss.hal.testsuite.util.ConfigUtils;
 import org.wildfly.extras.creaper.core.online.ModelNodeResult;
 import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
 import org.wildfly.extras.creaper.core.online.operations.Address;
+import org.wildfly.extras.creaper.core.online.operations.Batch;
 import org.wildfly.extras.creaper.core.online.operations.Operations;
 import org.wildfly.extras.creaper.core.online.operations.Values;
 
 import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.stream.Collectors.toList;
 import static org.jboss.hal.dmr.ModelDescriptionConstants.*;
 
 public class DeploymentOperations {
+
+    private static final int PARALLELISM = Integer.parseInt(ConfigUtils.get("deployment.parallelism", "4"));
+    private static final long STATUS_TIMEOUT = Long.parseLong(ConfigUtils.get("deployment.status.timeout", "60000"));
+    private static final long POLL_INTERVAL = 100;
+    private static final String OK = "OK";
+    private static final String FAILED = "FAILED";
+
     private final Operations ops;
 
     public DeploymentOperations(OnlineManagementClient client) {
@@ -58,24 +75,14 @@ public class DeploymentOperations {
     }
 
     public DeploymentOperations removeDeploymentsIfExist(List<String> deploymentsToBeRemoved) throws Exception {
-        if (ConfigUtils.isDomain()) {
-            List<String> serverGroupNames = ops.readChildrenNames(Address.root(), SERVER_GROUP).stringListValue();
-            for (String serverGroupName : serverGroupNames) {
-                List<String> serverGroupDeploymentNames =
-                        ops.readChildrenNames(Address.of(SERVER_GROUP, serverGroupName), DEPLOYMENT).stringListValue();
-                for (String deploymentName : deploymentsToBeRemoved) {
-                    if (serverGroupDeploymentNames.contains(deploymentName)) {
-                        undeployFromServerGroup(deploymentName, serverGroupName);
-                    }
-                }
-            }
-        }
-        for (String deploymentName : deploymentsToBeRemoved) {
-            ops.removeIfExists(Address.deployment(deploymentName));
-        }
+        removeAll(deploymentsToBeRemoved);
         return this;
     }
 
+    /**
+     * Starts to deploy the deployment and returns as soon as the {@code deploy} operation is active on the server. The
+     * returned future completes when the {@code deploy} operation returns.
+     */
     public CompletableFuture<Void> deployAsync(Deployment deployment) throws InterruptedException {
         CompletableFuture<Void> deployFuture = runAsync(() -> {
             try {
@@ -85,10 +92,82 @@ public class DeploymentOperations {
                 throw new RuntimeException(e);
             }
         });
-        TimeUnit.SECONDS.sleep(2);
+        waitForActiveDeployOperation(deployFuture);
         return deployFuture;
     }
 
+    /**
+     * Uploads the content of all deployments concurrently and deploys them in one composite operation. In domain mode
+     * the deployments are added to the specified server groups or to all server groups if no server group is given.
+     * The returned future completes when all deployments are up and running or completes exceptionally if the
+     * composite operation fails (in which case no deployment is enabled) or a deployment does not reach the status
+     * {@code OK} within {@code deployment.status.timeout} ms. If any step fails, the deployments of this call are
+     * undeployed and removed before the returned future completes exceptionally.
+     */
+    public CompletableFuture<Void> deployAll(Collection<Deployment> deployments, String... serverGroups) {
+        if (serverGroups.length > 0 && !ConfigUtils.isDomain()) {
+            throw new IllegalArgumentException("'serverGroups' parameter may be used only for domain scenarios.");
+        }
+        List<String> deploymentNames = deployments.stream().map(Deployment::getName).collect(toList());
+        int threads = Math.max(1, Math.min(PARALLELISM, deployments.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletableFuture<?>[] uploads = deployments.stream()
+                .map(deployment -> runAsync(() -> {
+                    try {
+                        addContent(deployment);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        CompletableFuture.allOf(uploads)
+                .thenRunAsync(() -> {
+                    try {
+                        deployComposite(deployments, serverGroups);
+                        waitForStatus(deploymentNames);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (InterruptedException | TimeoutException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, executor)
+                .whenCompleteAsync((result, throwable) -> {
+                    try {
+                        if (throwable == null) {
+                            future.complete(null);
+                        } else {
+                            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                                    ? throwable.getCause() : throwable;
+                            try {
+                                // don't leave the uploaded deployments behind, the next run would fail otherwise
+                                removeAll(deploymentNames);
+                            } catch (IOException | RuntimeException | AssertionError e) {
+                                cause.addSuppressed(e);
+                            }
+                            future.completeExceptionally(cause);
+                        }
+                    } finally {
+                        executor.shutdown();
+                    }
+                }, executor);
+        return future;
+    }
+
+    /**
+     * Undeploys and removes all existing deployments in one composite operation. In domain mode the deployments are
+     * removed from all server groups first. Deployments which don't exist are ignored.
+     */
+    public CompletableFuture<Void> undeployAll(Collection<String> deploymentNames) {
+        return runAsync(() -> {
+            try {
+                removeAll(deploymentNames);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     private DeploymentOperations addContent(Deployment deployment) throws MalformedURLException, IOException {
         ops.add(deployment.getAddress(), Values.ofList(CONTENT,
                 new ModelNodePropertiesBuilder().addProperty(URL,
@@ -102,6 +181,124 @@ public class DeploymentOperations {
         return this;
     }
 
+    private void deployComposite(Collection<Deployment> deployments, String... serverGroups) throws IOException {
+        if (deployments.isEmpty()) {
+            return;
+        }
+        Batch batch = new Batch();
+        if (ConfigUtils.isDomain()) {
+            List<String> serverGroupNames = serverGroups.length > 0 ? Arrays.asList(serverGroups)
+                    : ops.readChildrenNames(Address.root(), SERVER_GROUP).stringListValue();
+            for (String serverGroupName : serverGroupNames) {
+                for (Deployment deployment : deployments) {
+                    batch.add(Address.of(SERVER_GROUP, serverGroupName).and(DEPLOYMENT, deployment.getName()),
+                            Values.of(ENABLED, true));
+                }
+            }
+        } else {
+            for (Deployment deployment : deployments) {
+                batch.invoke(DEPLOY, deployment.getAddress());
+            }
+        }
+        ops.batch(batch).assertSuccess();
+    }
+
+    private void removeAll(Collection<String> deploymentNames) throws IOException {
+        List<String> existing = ops.readChildrenNames(Address.root(), DEPLOYMENT).stringListValue();
+        Batch batch = new Batch();
+        int steps = 0;
+        if (ConfigUtils.isDomain()) {
+            List<String> serverGroupNames = ops.readChildrenNames(Address.root(), SERVER_GROUP).stringListValue();
+            for (String serverGroupName : serverGroupNames) {
+                List<String> serverGroupDeploymentNames =
+                        ops.readChildrenNames(Address.of(SERVER_GROUP, serverGroupName), DEPLOYMENT).stringListValue();
+                for (String deploymentName : deploymentNames) {
+                    if (serverGroupDeploymentNames.contains(deploymentName)) {
+                        batch.remove(Address.of(SERVER_GROUP, serverGroupName).and(DEPLOYMENT, deploymentName));
+                        steps++;
+                    }
+                }
+            }
+        }
+        for (String deploymentName : deploymentNames) {
+            if (existing.contains(deploymentName)) {
+                batch.remove(Address.deployment(deploymentName));
+                steps++;
+            }
+        }
+        if (steps > 0) {
+            ops.batch(batch).assertSuccess();
+        }
+    }
+
+    /** Polls the runtime status of the deployments until all of them are {@code OK}. */
+    private void waitForStatus(List<String> deploymentNames)
+            throws IOException, InterruptedException, TimeoutException {
+        long start = System.currentTimeMillis();
+        List<String> pending = new ArrayList<>(deploymentNames);
+        while (!pending.isEmpty()) {
+            List<String> done = new ArrayList<>();
+            for (String deploymentName : pending) {
+                List<String> status = status(deploymentName);
+                if (status.contains(FAILED)) {
+                    throw new IllegalStateException("Deployment " + deploymentName + " failed.");
+                }
+                if (!status.isEmpty() && status.stream().allMatch(OK::equals)) {
+                    done.add(deploymentName);
+                }
+            }
+            pending.removeAll(done);
+            if (!pending.isEmpty()) {
+                if (System.currentTimeMillis() - start > STATUS_TIMEOUT) {
+                    throw new TimeoutException("Deployments " + pending + " not up after " + STATUS_TIMEOUT + " ms.");
+                }
+                TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL);
+            }
+        }
+    }
+
+    /** Returns the status of the deployment (in domain mode the status on all running servers). */
+    private List<String> status(String deploymentName) throws IOException {
+        List<String> status = new ArrayList<>();
+        if (ConfigUtils.isDomain()) {
+            ModelNodeResult result = ops.readAttribute(
+                    Address.host("*").and(SERVER, "*").and(DEPLOYMENT, deploymentName), STATUS);
+            if (result.isSuccess() && result.hasDefinedValue()) {
+                for (ModelNode server : result.listValue()) {
+                    status.add(server.get(RESULT).asString());
+                }
+            }
+        } else {
+            ModelNodeResult result = ops.readAttribute(Address.deployment(deploymentName), STATUS);
+            if (result.isSuccess() && result.hasDefinedValue()) {
+                status.add(result.stringValue());
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Waits until a {@code deploy} operation is active on the server or the deploy future is done (e.g. because the
+     * deployment was faster than the first poll).
+     */
+    private void waitForActiveDeployOperation(CompletableFuture<Void> deployFuture) throws InterruptedException {
+        Address activeOperations = Address.coreService(MANAGEMENT).and(SERVICE, "management-operations")
+                .and(ACTIVE_OPERATION, "*");
+        long start = System.currentTimeMillis();
+        while (!deployFuture.isDone() && System.currentTimeMillis() - start < STATUS_TIMEOUT) {
+            try {
+                ModelNodeResult result = ops.invoke(QUERY, activeOperations,
+                        Values.ofObject(WHERE, Values.of(OPERATION, DEPLOY)));
+                if (result.isSuccess() && result.hasDefinedValue() && !result.listValue().isEmpty()) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not yet available, try again
+            }
+            TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL);
+        }
+    }
+
     private ModelNode getFirstContentNode(String deploymentName) throws IOException {
         ModelNodeResult contentResult =  ops.readAttribute(Address.deployment(deploymentName), CONTENT);
         contentResult.assertDefinedValue();